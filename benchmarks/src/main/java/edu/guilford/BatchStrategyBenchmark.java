@@ -0,0 +1,208 @@
+package edu.guilford;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for making the default strategy's decisions for a batch of
+ * tables, one Hand at a time through the Strategy against all at once
+ * through a BatchStrategy. Scores are the time of a single decision.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see BatchStrategy
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BatchStrategyBenchmark {
+
+    /**
+     * The number of tables decided in each call.
+     */
+    private static final int TABLES = 4096;
+
+    /**
+     * The strategy deciding one hand at a time.
+     */
+    private final Strategy strategy = DefaultStrategy.INSTANCE;
+
+    /**
+     * The strategy deciding every table at once.
+     */
+    private final BatchStrategy batch = new BatchStrategy();
+
+    /**
+     * The 3 card hands.
+     */
+    private Hand[] hands;
+
+    /**
+     * The 4 card hands, each a 3 card hand and the top discard.
+     */
+    private Hand[] drawnHands;
+
+    /**
+     * The top discards.
+     */
+    private Card[] topDiscards;
+
+    /**
+     * The 3 card hands as card masks.
+     */
+    private long[] handMasks;
+
+    /**
+     * The 4 card hands as card masks.
+     */
+    private long[] drawnMasks;
+
+    /**
+     * The top discards as card indices.
+     */
+    private byte[] topIndices;
+
+    /**
+     * The take and knock decisions of a batch.
+     */
+    private boolean[] decisions;
+
+    /**
+     * The discards of a batch.
+     */
+    private byte[] discards;
+
+    /**
+     * Deals every table four cards from a seeded deck: three to the hand and
+     * one to the discard pile.
+     */
+    @Setup
+    public void setUp() {
+        Deck deck = new Deck(new XoroshiroRandom(31));
+        hands = new Hand[TABLES];
+        drawnHands = new Hand[TABLES];
+        topDiscards = new Card[TABLES];
+        handMasks = new long[TABLES];
+        drawnMasks = new long[TABLES];
+        topIndices = new byte[TABLES];
+        decisions = new boolean[TABLES];
+        discards = new byte[TABLES];
+        for (int i = 0; i < TABLES; i++) {
+            if (deck.size() < 4) {
+                deck.build();
+                deck.shuffle();
+            }
+            hands[i] = new Hand();
+            drawnHands[i] = new Hand();
+            for (int j = 0; j < 3; j++) {
+                Card card = deck.deal();
+                hands[i].addCard(card);
+                drawnHands[i].addCard(card);
+            }
+            topDiscards[i] = deck.deal();
+            drawnHands[i].addCard(topDiscards[i]);
+            handMasks[i] = hands[i].getMask();
+            drawnMasks[i] = drawnHands[i].getMask();
+            topIndices[i] = (byte) topDiscards[i].index();
+        }
+    }
+
+    /**
+     * Decides whether to take the top discard at every table, one at a time.
+     *
+     * @return The number of tables taking the top discard.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public int shouldTakeDiscard() {
+        int taken = 0;
+        for (int i = 0; i < TABLES; i++) {
+            if (strategy.shouldTakeDiscard(hands[i], topDiscards[i])) {
+                taken++;
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * Decides whether to take the top discard at every table in one batch.
+     *
+     * @return The decisions.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public boolean[] shouldTakeDiscardBatch() {
+        batch.shouldTakeDiscard(handMasks, topIndices, decisions, TABLES);
+        return decisions;
+    }
+
+    /**
+     * Chooses the discard at every table, one at a time.
+     *
+     * @return The sum of the discarded card indices.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public int chooseDiscard() {
+        int sum = 0;
+        for (int i = 0; i < TABLES; i++) {
+            sum += strategy.chooseDiscard(drawnHands[i]).index();
+        }
+        return sum;
+    }
+
+    /**
+     * Chooses the discard at every table in one batch.
+     *
+     * @return The discards.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public byte[] chooseDiscardBatch() {
+        batch.chooseDiscard(drawnMasks, discards, TABLES);
+        return discards;
+    }
+
+    /**
+     * Decides whether to knock at every table, one at a time.
+     *
+     * @return The number of tables knocking.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public int shouldKnock() {
+        int knocks = 0;
+        for (int i = 0; i < TABLES; i++) {
+            if (strategy.shouldKnock(hands[i])) {
+                knocks++;
+            }
+        }
+        return knocks;
+    }
+
+    /**
+     * Decides whether to knock at every table in one batch.
+     *
+     * @return The decisions.
+     */
+    @Benchmark
+    @OperationsPerInvocation(TABLES)
+    public boolean[] shouldKnockBatch() {
+        batch.shouldKnock(handMasks, decisions, TABLES);
+        return decisions;
+    }
+}
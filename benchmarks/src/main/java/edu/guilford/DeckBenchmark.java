@@ -0,0 +1,68 @@
+package edu.guilford;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for rebuilding, shuffling and dealing a deck.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Deck
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    /**
+     * The deck being shuffled and dealt.
+     */
+    private Deck deck;
+
+    /**
+     * Creates a deck with a seeded generator.
+     */
+    @Setup
+    public void setUp() {
+        deck = new Deck(new XoroshiroRandom(31));
+    }
+
+    /**
+     * Rebuilds and shuffles the deck, as every new round does.
+     *
+     * @return The shuffled deck.
+     */
+    @Benchmark
+    public Deck shuffle() {
+        deck.build();
+        deck.shuffle();
+        return deck;
+    }
+
+    /**
+     * Deals one card, rebuilding the deck whenever it runs out.
+     *
+     * @return The card dealt.
+     */
+    @Benchmark
+    public Card deal() {
+        if (deck.size() == 0) {
+            deck.build();
+        }
+        return deck.deal();
+    }
+}
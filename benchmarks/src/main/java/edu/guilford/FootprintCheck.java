@@ -0,0 +1,105 @@
+package edu.guilford;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Checks how much memory one game holds on to, with JOL, and fails when the
+ * engine's per-game object graph grows past its budget.
+ * <p>
+ * A game is measured in the middle of a round, after every player has had a
+ * few turns. Objects that every game shares, such as the canonical cards,
+ * the default strategy and the player names, are left out, so the retained
+ * size is what another table really costs. The snapshot a compact
+ * {@link TableHost} keeps for an idle table is measured the same way.
+ * <p>
+ * Run it from the benchmarks jar:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar edu.guilford.FootprintCheck
+ * </pre>
+ * It prints both layouts and exits with status 1 if either is over budget.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Game
+ * @see GameSnapshot
+ */
+public class FootprintCheck {
+
+    /**
+     * The number of players in the measured game.
+     */
+    private static final int NUM_PLAYERS = 4;
+
+    /**
+     * The number of turns played before measuring.
+     */
+    private static final int TURNS = 20;
+
+    /**
+     * The most bytes a game may retain.
+     */
+    private static final long GAME_BUDGET = 1536;
+
+    /**
+     * The most bytes a game's snapshot may retain.
+     */
+    private static final long SNAPSHOT_BUDGET = 384;
+
+    /**
+     * Measures a game and its snapshot and checks them against the budgets.
+     *
+     * @param args Not used.
+     */
+    public static void main(String[] args) {
+        Game game = new Game(NUM_PLAYERS, GameListener.NONE, 31L);
+        for (int i = 0; i < TURNS && game.step(); i++) {
+            // Play into the middle of a round
+        }
+        GraphLayout gameLayout = GraphLayout.parseInstance(game).subtract(shared(game));
+        GraphLayout snapshotLayout = GraphLayout.parseInstance(game.snapshot());
+
+        System.out.println(gameLayout.toFootprint());
+        System.out.println(snapshotLayout.toFootprint());
+        boolean ok = check("game", gameLayout.totalSize(), GAME_BUDGET);
+        ok &= check("snapshot", snapshotLayout.totalSize(), SNAPSHOT_BUDGET);
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Prints a retained size and whether it is within its budget.
+     *
+     * @param what   What was measured.
+     * @param size   The retained size in bytes.
+     * @param budget The most bytes allowed.
+     * @return true if the size is within the budget.
+     */
+    private static boolean check(String what, long size, long budget) {
+        boolean ok = size <= budget;
+        System.out.printf("%-8s %6d bytes, budget %6d: %s%n", what, size, budget, ok ? "ok" : "OVER BUDGET");
+        return ok;
+    }
+
+    /**
+     * Lays out the objects a game shares with every other game.
+     *
+     * @param game The game being measured.
+     * @return The layout of the shared objects.
+     */
+    private static GraphLayout shared(Game game) {
+        List<Object> roots = new ArrayList<>();
+        for (int i = 0; i < CardMask.DECK_SIZE; i++) {
+            roots.add(Card.ofIndex(i));
+        }
+        roots.add(DefaultStrategy.INSTANCE);
+        roots.add(GameListener.NONE);
+        for (Player player : game.getPlayers()) {
+            roots.add(player.getName());
+        }
+        return GraphLayout.parseInstance(roots.toArray());
+    }
+}
@@ -0,0 +1,64 @@
+package edu.guilford;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for playing complete headless games, for several table sizes.
+ * The games draw from one seeded generator, so every run plays the same
+ * sequence of games.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Game
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * The number of players in each game.
+     */
+    @Param({ "2", "3", "4", "6" })
+    private int numPlayers;
+
+    /**
+     * The generator all games draw from.
+     */
+    private XoroshiroRandom rand;
+
+    /**
+     * Seeds the generator.
+     */
+    @Setup
+    public void setUp() {
+        rand = new XoroshiroRandom(31);
+    }
+
+    /**
+     * Plays one game to the end without any output.
+     *
+     * @return The winner of the game.
+     */
+    @Benchmark
+    public Player play() {
+        Game game = new Game(numPlayers, GameListener.NONE, rand);
+        game.play();
+        return game.getWinner();
+    }
+}
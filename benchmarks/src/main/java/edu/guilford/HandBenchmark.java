@@ -0,0 +1,87 @@
+package edu.guilford;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for scoring a hand and finding its preferred suit with the
+ * default strategy.
+ * Each call works on the next of a fixed set of random 3 card hands, so the
+ * results are not skewed by a single hand the JIT can specialize for.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Hand
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBenchmark {
+
+    /**
+     * The number of hands cycled through. A power of two.
+     */
+    private static final int HANDS = 1024;
+
+    /**
+     * The hands being scored.
+     */
+    private Hand[] hands;
+
+    /**
+     * Position of the next hand to score.
+     */
+    private int next;
+
+    /**
+     * Deals the hands from a seeded deck.
+     */
+    @Setup
+    public void setUp() {
+        Deck deck = new Deck(new XoroshiroRandom(31));
+        hands = new Hand[HANDS];
+        for (int i = 0; i < HANDS; i++) {
+            if (deck.size() < 3) {
+                deck.build();
+                deck.shuffle();
+            }
+            hands[i] = new Hand();
+            for (int j = 0; j < 3; j++) {
+                hands[i].addCard(deck.deal());
+            }
+        }
+    }
+
+    /**
+     * Scores one hand.
+     *
+     * @return The hand's value.
+     */
+    @Benchmark
+    public int getTotalValue() {
+        return hands[next++ & (HANDS - 1)].getTotalValue();
+    }
+
+    /**
+     * Finds the preferred suit of one hand.
+     *
+     * @return The hand's preferred suit.
+     */
+    @Benchmark
+    public Card.Suit getPreferredSuit() {
+        return DefaultStrategy.getPreferredSuit(hands[next++ & (HANDS - 1)]);
+    }
+}
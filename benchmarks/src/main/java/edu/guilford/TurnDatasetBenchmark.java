@@ -0,0 +1,131 @@
+package edu.guilford;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmark for the cost of exporting every turn to a turn dataset while
+ * games are played, against the same games played headless. Both draw from
+ * one seeded generator, so they play the same sequence of games.
+ * <p>
+ * The aim was for export to cost no more than a tenth of headless play,
+ * and it falls short: playExported has scored 5 to 29 percent below play.
+ * playNoOpListener reports every event to a listener that ignores them, to
+ * tell the cost of writing the dataset from the cost of reporting events.
+ * On a single core its score has swung from above play to below
+ * playExported between runs, so it has not yet told them apart.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TurnDatasetWriter
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TurnDatasetBenchmark {
+
+    /**
+     * The number of players in each game.
+     */
+    private static final int NUM_PLAYERS = 4;
+
+    /**
+     * The generator all games draw from.
+     */
+    private XoroshiroRandom rand;
+
+    /**
+     * The directory the dataset is written to.
+     */
+    private Path directory;
+
+    /**
+     * The writer exporting the games.
+     */
+    private TurnDatasetWriter writer;
+
+    /**
+     * A listener that ignores every event.
+     */
+    private final GameListener noOp = new GameListener() {
+    };
+
+    /**
+     * Seeds the generator and opens a dataset in a temporary directory.
+     *
+     * @throws IOException if the dataset cannot be created.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        rand = new XoroshiroRandom(31);
+        directory = Files.createTempDirectory("turns");
+        writer = TurnDatasetWriter.open(directory);
+    }
+
+    /**
+     * Closes the dataset and deletes it.
+     *
+     * @throws IOException if the dataset cannot be closed or deleted.
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        writer.close();
+        for (TurnColumn column : TurnColumn.values()) {
+            Files.deleteIfExists(directory.resolve(column.getFileName()));
+        }
+        Files.delete(directory);
+    }
+
+    /**
+     * Plays one game without any output.
+     *
+     * @return The winner of the game.
+     */
+    @Benchmark
+    public Player play() {
+        Game game = new Game(NUM_PLAYERS, GameListener.NONE, rand);
+        game.play();
+        return game.getWinner();
+    }
+
+    /**
+     * Plays one game, reporting its events to a listener that ignores them.
+     *
+     * @return The winner of the game.
+     */
+    @Benchmark
+    public Player playNoOpListener() {
+        Game game = new Game(NUM_PLAYERS, noOp, rand);
+        game.play();
+        return game.getWinner();
+    }
+
+    /**
+     * Plays one game, writing every turn to the dataset.
+     *
+     * @return The winner of the game.
+     */
+    @Benchmark
+    public Player playExported() {
+        Game game = new Game(NUM_PLAYERS, writer, rand);
+        game.play();
+        return game.getWinner();
+    }
+}
@@ -0,0 +1,301 @@
+package edu.guilford;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Writes game events as text or JSON lines on a background thread.
+ * Game threads only put events into a bounded ring buffer; the writer thread
+ * takes them out in batches, renders a whole batch into one string and
+ * writes and flushes it in one call. A game therefore never waits for
+ * output unless the buffer is full, in which case it waits for room rather
+ * than losing events.
+ * <p>
+ * One writer can be subscribed to the buses of many threads at once. The
+ * output belongs to the caller: close() writes every queued event and
+ * flushes the output, but does not close it, so System.out can be used.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameEventBus
+ */
+public class AsyncGameEventWriter implements GameEventListener, Closeable {
+
+    /**
+     * The formats events can be written in.
+     */
+    public enum Format {
+        /**
+         * One line of plain English per event, from {@link GameEvent#toString()}.
+         */
+        TEXT,
+
+        /**
+         * One JSON object per line.
+         */
+        JSON
+    }
+
+    /**
+     * The number of events the buffer holds unless set otherwise.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The most events written in one batch.
+     */
+    private static final int BATCH_SIZE = 1024;
+
+    /**
+     * Queued by close() to tell the writer thread to finish.
+     */
+    private static final GameEvent END = new GameEvent(GameEvent.Type.GAME_END, -1, 0, -1, null, null, 0,
+            false);
+
+    /**
+     * The events waiting to be written.
+     */
+    private BlockingQueue<GameEvent> queue;
+
+    /**
+     * Where the events are written.
+     */
+    private Writer out;
+
+    /**
+     * The format the events are written in.
+     */
+    private Format format;
+
+    /**
+     * The thread that writes the events.
+     */
+    private Thread writerThread;
+
+    /**
+     * Whether close() has been called.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Held shared by games while they check closed and queue an event, and
+     * exclusively by close() while it sets closed, so no event can be queued
+     * after close()'s marker.
+     */
+    private final ReadWriteLock closing = new ReentrantReadWriteLock();
+
+    /**
+     * The first error the writer thread hit, rethrown by close().
+     */
+    private volatile IOException failure;
+
+    /**
+     * Constructs a writer with the default buffer size and starts its thread.
+     *
+     * @param out    Where to write the events.
+     * @param format The format to write them in.
+     */
+    public AsyncGameEventWriter(Writer out, Format format) {
+        this(out, format, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs a writer and starts its thread.
+     *
+     * @param out      Where to write the events.
+     * @param format   The format to write them in.
+     * @param capacity The number of events the buffer holds.
+     */
+    public AsyncGameEventWriter(Writer out, Format format, int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.out = out;
+        this.format = format;
+        writerThread = new Thread(this::drain, "game-event-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Queues an event, waiting for room if the buffer is full.
+     *
+     * @param event The event to write.
+     * @throws IllegalStateException if the writer has been closed.
+     */
+    @Override
+    public void onEvent(GameEvent event) {
+        closing.readLock().lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Event writer is closed");
+            }
+            put(event);
+        } finally {
+            closing.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for games that are queuing an event, writes every queued event,
+     * flushes the output and stops the writer thread. Games that send an
+     * event once close() has been called get an IllegalStateException. The
+     * output itself is left open.
+     *
+     * @throws IOException if the writer thread could not write an event.
+     */
+    @Override
+    public void close() throws IOException {
+        closing.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        } finally {
+            closing.writeLock().unlock();
+        }
+        put(END);
+        boolean interrupted = false;
+        while (writerThread.isAlive()) {
+            try {
+                writerThread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Queues an event, waiting for room if the buffer is full. An interrupt
+     * does not lose the event; it is restored once the event is queued.
+     *
+     * @param event The event to queue.
+     */
+    private void put(GameEvent event) {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                queue.put(event);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The writer thread: takes batches of events off the buffer and writes each
+     * batch with a single write and flush, until it reaches close()'s
+     * marker, which is always the last event queued. After an error, events
+     * are still taken off the buffer so that games never block, but they are
+     * dropped.
+     */
+    private void drain() {
+        List<GameEvent> batch = new ArrayList<>(BATCH_SIZE);
+        StringBuilder text = new StringBuilder();
+        boolean done = false;
+        while (!done) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue; // Only close() stops the writer thread
+            }
+            queue.drainTo(batch, BATCH_SIZE - 1);
+            for (GameEvent event : batch) {
+                if (event == END) {
+                    done = true;
+                } else {
+                    render(event, text);
+                }
+            }
+            batch.clear();
+            if (failure == null && (text.length() > 0 || done)) {
+                try {
+                    out.write(text.toString());
+                    out.flush();
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            text.setLength(0);
+        }
+    }
+
+    /**
+     * Renders an event as one line in the writer's format.
+     *
+     * @param event The event.
+     * @param text  Where to append the line.
+     */
+    private void render(GameEvent event, StringBuilder text) {
+        if (format == Format.TEXT) {
+            text.append(event).append('\n');
+            return;
+        }
+        text.append("{\"game\":").append(event.getGame())
+                .append(",\"round\":").append(event.getRound())
+                .append(",\"type\":\"").append(event.getType()).append('"');
+        if (event.getPlayer() != null) {
+            text.append(",\"seat\":").append(event.getSeat()).append(",\"player\":");
+            appendString(event.getPlayer(), text);
+        }
+        if (event.getCard() != null) {
+            text.append(",\"card\":").append(event.getCard().index())
+                    .append(",\"cardName\":\"").append(event.getCard()).append('"');
+        }
+        switch (event.getType()) {
+            case DRAW:
+                text.append(",\"fromDiscard\":").append(event.getFlag());
+                break;
+            case DISCARD:
+                text.append(",\"toStock\":").append(event.getFlag());
+                break;
+            case LIVES_LOST:
+                text.append(",\"lives\":").append(event.getLives());
+                break;
+            case ROUND_END:
+                text.append(",\"thirtyOne\":").append(event.getFlag());
+                break;
+            default:
+                break;
+        }
+        text.append("}\n");
+    }
+
+    /**
+     * Appends a JSON string, escaping quotes, backslashes and control
+     * characters.
+     *
+     * @param value The string.
+     * @param text  Where to append it.
+     */
+    private static void appendString(String value, StringBuilder text) {
+        text.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                text.append('\\').append(c);
+            } else if (c < 0x20) {
+                text.append(String.format("\\u%04x", (int) c));
+            } else {
+                text.append(c);
+            }
+        }
+        text.append('"');
+    }
+}
@@ -0,0 +1,162 @@
+package edu.guilford;
+
+/**
+ * The decisions of a {@link DefaultStrategy}, made for many tables in one
+ * call.
+ * <p>
+ * Where a Strategy is asked about one Hand at a time, a BatchStrategy takes
+ * the hands of every table as parallel primitive arrays: hands as card masks
+ * and cards as card indices, the same encoding as {@link CardMask}. Each
+ * decision is a single loop over the arrays that reads no objects and makes
+ * no virtual calls, so the JIT can keep it in registers and unroll it. The
+ * answers are the same as a DefaultStrategy with the same knock threshold
+ * would give.
+ * <p>
+ * Only {@link #chooseDiscard(long[], byte[], int)} is faster than asking a
+ * Strategy one Hand at a time. A Hand keeps its value and suit counts up to
+ * date as cards come and go, so the Strategy answers whether to take or
+ * knock with a lookup, while the batch counts suits and scores every mask
+ * again: {@code BatchStrategyBenchmark} puts a take at 6.7 ns against
+ * 3.8 ns, and a knock at 3.1 ns against 0.8 ns. The take and knock calls
+ * are only worth using for tables kept as card masks, such as a bot
+ * farm's, where they save building and updating a Hand at all.
+ * <p>
+ * Each call works on the first count entries of its arrays and writes its
+ * answers into arrays owned by the caller, so the same arrays can be reused
+ * every turn without allocating. A card mask holds each card once, so hands
+ * with duplicate cards from a multi-deck shoe must be decided by the
+ * Strategy instead.
+ * <p>
+ * A BatchStrategy has no state besides its threshold, so one instance can be
+ * shared by any number of threads.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see DefaultStrategy
+ * @see CardMask
+ */
+public class BatchStrategy {
+
+    /**
+     * Mask selecting the 13 bits of one suit.
+     */
+    private static final long SUIT_BITS = (1L << CardMask.RANKS) - 1;
+
+    /**
+     * The lowest hand value the strategy knocks with.
+     */
+    private final int knockThreshold;
+
+    /**
+     * Constructs a batch strategy that knocks at 25 or more.
+     */
+    public BatchStrategy() {
+        this(DefaultStrategy.DEFAULT_KNOCK_THRESHOLD);
+    }
+
+    /**
+     * Constructs a batch strategy that knocks at the given hand value or more.
+     *
+     * @param knockThreshold The lowest hand value to knock with.
+     */
+    public BatchStrategy(int knockThreshold) {
+        this.knockThreshold = knockThreshold;
+    }
+
+    /**
+     * Gets the lowest hand value the strategy knocks with.
+     *
+     * @return The knock threshold.
+     */
+    public int getKnockThreshold() {
+        return knockThreshold;
+    }
+
+    /**
+     * Decides for every table whether to take the top discard, which is
+     * taken when it is the suit the hand holds most of. Ties go to the suit
+     * that comes first, as in {@link Hand#getPreferredSuit()}.
+     *
+     * @param hands       The players' 3 card hands, as card masks.
+     * @param topDiscards The index of the card on top of each discard pile.
+     * @param take        Set to true for each table that should take the top
+     *                    discard, false for each that should draw.
+     * @param count       The number of tables.
+     * @throws IllegalArgumentException if an array holds fewer than count
+     *                                  entries.
+     */
+    public void shouldTakeDiscard(long[] hands, byte[] topDiscards, boolean[] take, int count) {
+        checkCount(count, hands.length, topDiscards.length, take.length);
+        for (int i = 0; i < count; i++) {
+            long hand = hands[i];
+            // Each suit's key is its card count above its distance from the
+            // last suit, so the largest key is the first suit with the most
+            // cards, found with max alone and no branches
+            int clubs = Long.bitCount(hand & SUIT_BITS) << 2 | 3;
+            int diamonds = Long.bitCount((hand >>> CardMask.RANKS) & SUIT_BITS) << 2 | 2;
+            int hearts = Long.bitCount((hand >>> (2 * CardMask.RANKS)) & SUIT_BITS) << 2 | 1;
+            int spades = Long.bitCount((hand >>> (3 * CardMask.RANKS)) & SUIT_BITS) << 2;
+            int best = 3 - (Math.max(Math.max(clubs, diamonds), Math.max(hearts, spades)) & 3);
+            long preferred = hand == 0 ? 0L : SUIT_BITS << (best * CardMask.RANKS);
+            take[i] = (preferred & CardMask.bit(topDiscards[i])) != 0;
+        }
+    }
+
+    /**
+     * Chooses for every table the card to discard after drawing, the one
+     * that leaves the highest scoring three cards.
+     *
+     * @param hands    The players' 4 card hands, as card masks.
+     * @param discards Set to the index of the card each table should discard.
+     * @param count    The number of tables.
+     * @throws IllegalArgumentException if an array holds fewer than count
+     *                                  entries, or a hand does not hold four
+     *                                  cards, before any discard is written.
+     * @see HandTable#bestDiscard(long)
+     */
+    public void chooseDiscard(long[] hands, byte[] discards, int count) {
+        checkCount(count, hands.length, discards.length, count);
+        for (int i = 0; i < count; i++) {
+            if (Long.bitCount(hands[i]) != 4) {
+                throw new IllegalArgumentException("Table " + i + " does not hold exactly 4 cards");
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            discards[i] = (byte) HandTable.bestDiscard(hands[i]);
+        }
+    }
+
+    /**
+     * Decides for every table whether to knock, which it does once the hand
+     * is worth at least the knock threshold.
+     *
+     * @param hands The players' 3 card hands, as card masks.
+     * @param knock Set to true for each table that should knock.
+     * @param count The number of tables.
+     * @throws IllegalArgumentException if an array holds fewer than count
+     *                                  entries.
+     */
+    public void shouldKnock(long[] hands, boolean[] knock, int count) {
+        checkCount(count, hands.length, knock.length, count);
+        for (int i = 0; i < count; i++) {
+            knock[i] = CardMask.score(hands[i]) >= knockThreshold;
+        }
+    }
+
+    /**
+     * Checks that a batch fits in its arrays, before any answer is written.
+     *
+     * @param count The number of tables.
+     * @param a     The length of the first array.
+     * @param b     The length of the second array.
+     * @param c     The length of the third array.
+     * @throws IllegalArgumentException if count is negative or larger than
+     *                                  an array.
+     */
+    private static void checkCount(int count, int a, int b, int c) {
+        if (count < 0 || count > Math.min(a, Math.min(b, c))) {
+            throw new IllegalArgumentException("Cannot decide " + count + " tables with arrays of length "
+                    + Math.min(a, Math.min(b, c)));
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package edu.guilford;
 
-import java.util.Random;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Represents a playing card with a suit and rank.
  * Implements Comparable to allow for card comparison based on suit or rank.
+ * <p>
+ * Cards are immutable, and there is one canonical instance of each of the 52
+ * cards, shared through {@link #of(Suit, Rank)} and {@link #ofIndex(int)}.
+ * The deck, hands and game all use these, so playing never creates cards.
+ * Two cards are equal when they have the same suit and rank, and their hash
+ * code is their card index, which also makes a card a ready-made array index.
  * 
  * @author Miguel A. Nunez Palomares
  * @version 1.0
- * @see java.util.Random
+ * @see java.util.concurrent.ThreadLocalRandom
  * 
  */
 public class Card implements Comparable<Card> {
@@ -60,19 +67,58 @@ public class Card implements Comparable<Card> {
     /**
      * The suit of the card.
      */
-    private Suit suit;
+    private final Suit suit;
 
     /**
      * The rank of the card.
      */
-    private Rank rank;
+    private final Rank rank;
+
+    /**
+     * The index of the card in the primitive card engine, which is also its
+     * position in suit-major order.
+     */
+    private final int index;
+
+    /**
+     * The position of the card in rank-major order.
+     */
+    private final int rankKey;
+
+    /**
+     * The canonical instance of every card, indexed by card index.
+     */
+    private static final Card[] CARDS = new Card[CardMask.DECK_SIZE];
+
+    static {
+        for (Suit suit : Suit.values()) {
+            for (Rank rank : Rank.values()) {
+                Card card = new Card(suit, rank);
+                CARDS[card.index] = card;
+            }
+        }
+    }
+
+    /**
+     * Orders cards by suit, then by rank within a suit.
+     */
+    public static final Comparator<Card> BY_SUIT = (a, b) -> Integer.compare(a.index, b.index);
+
+    /**
+     * Orders cards by rank, then by suit within a rank.
+     */
+    public static final Comparator<Card> BY_RANK = (a, b) -> Integer.compare(a.rankKey, b.rankKey);
 
     /**
      * The sort method for comparing cards based on suit or rank.
      */
     public static final int SORT_BY_SUIT = 1;
     public static final int SORT_BY_RANK = 2;
-    private static int sortMethod = SORT_BY_RANK;
+
+    /**
+     * The order compareTo uses on each thread, set by setSortMethod.
+     */
+    private static final ThreadLocal<Comparator<Card>> ORDER = ThreadLocal.withInitial(() -> BY_RANK);
 
     /**
      * Constructs a Card with a specified suit and rank.
@@ -83,18 +129,43 @@ public class Card implements Comparable<Card> {
     public Card(Suit suit, Rank rank) {
         this.suit = suit;
         this.rank = rank;
+        this.index = CardMask.index(suit.ordinal(), rank.ordinal());
+        this.rankKey = rank.ordinal() * CardMask.SUITS + suit.ordinal();
     }
 
     /**
      * Constructs a random Card with a random suit and rank.
      */
     public Card() {
-        // random Card
-        Random rand = new Random();
-        int suit = rand.nextInt(Suit.values().length);
-        int rank = rand.nextInt(Rank.values().length);
-        this.suit = Suit.values()[suit];
-        this.rank = Rank.values()[rank];
+        // random Card, without creating a new Random for every card
+        this(Suit.values()[ThreadLocalRandom.current().nextInt(CardMask.SUITS)],
+                Rank.values()[ThreadLocalRandom.current().nextInt(CardMask.RANKS)]);
+    }
+
+    /**
+     * Gets the canonical card with the given suit and rank.
+     * 
+     * @param suit The suit of the card.
+     * @param rank The rank of the card.
+     * @return The shared instance of that card.
+     */
+    public static Card of(Suit suit, Rank rank) {
+        return CARDS[CardMask.index(suit.ordinal(), rank.ordinal())];
+    }
+
+    /**
+     * Gets the canonical card with the given card index.
+     * 
+     * @param index The card index, from 0 to 51.
+     * @return The shared instance of that card.
+     * @throws IllegalArgumentException if the index is not a card index.
+     * @see CardMask
+     */
+    public static Card ofIndex(int index) {
+        if (index < 0 || index >= CARDS.length) {
+            throw new IllegalArgumentException("No card has index " + index);
+        }
+        return CARDS[index];
     }
 
     /**
@@ -116,12 +187,37 @@ public class Card implements Comparable<Card> {
     }
 
     /**
-     * Sets the sorting method for comparing cards.
+     * Gets the index of the card in the primitive card engine, from 0 to 51.
+     * 
+     * @return The card index.
+     * @see CardMask
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Sets the sorting method compareTo uses on the calling thread. Other
+     * threads keep their own setting, which starts as SORT_BY_RANK.
      * 
      * @param sortMethod The sorting method to use (SORT_BY_SUIT or SORT_BY_RANK).
+     * @deprecated Pass {@link #BY_SUIT} or {@link #BY_RANK} to the sort
+     *             methods of Hand and Deck instead.
      */
+    @Deprecated
     public static void setSortMethod(int sortMethod) {
-        Card.sortMethod = sortMethod;
+        ORDER.set(sortMethod == SORT_BY_SUIT ? BY_SUIT : BY_RANK);
+    }
+
+    /**
+     * Gets the order compareTo uses on the calling thread, BY_SUIT or BY_RANK.
+     * Sorting with it looks the setting up once for the whole sort, where
+     * sorting by compareTo looks it up again for every comparison.
+     *
+     * @return The calling thread's order.
+     */
+    public static Comparator<Card> getSortOrder() {
+        return ORDER.get();
     }
 
     /**
@@ -143,8 +239,30 @@ public class Card implements Comparable<Card> {
     }
 
     /**
-     * Compares this card with another card based on the current sort method (suit
-     * or rank).
+     * Checks if another object is a card with the same suit and rank.
+     * 
+     * @param other The object to compare to.
+     * @return true if the other object is the same card.
+     */
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Card && ((Card) other).index == index;
+    }
+
+    /**
+     * Gets the hash code of the card, which is its card index.
+     * 
+     * @return The card index.
+     */
+    @Override
+    public int hashCode() {
+        return index;
+    }
+
+    /**
+     * Compares this card with another card based on the calling thread's sort
+     * method (suit or rank). Sorts should use {@link #getSortOrder()} or one
+     * of the orders directly rather than this method.
      * 
      * @param otherCard The other card to compare to.
      * @return A positive number if this card is greater, a negative number if
@@ -152,33 +270,7 @@ public class Card implements Comparable<Card> {
      */
     @Override
     public int compareTo(Card otherCard) {
-        if (sortMethod == SORT_BY_SUIT) {
-            if (this.suit.ordinal() > otherCard.suit.ordinal()) {
-                return 1;
-            } else if (this.suit.ordinal() < otherCard.suit.ordinal()) {
-                return -1;
-            } else {
-                if (this.rank.ordinal() > otherCard.rank.ordinal()) {
-                    return 1;
-                } else if (this.rank.ordinal() < otherCard.rank.ordinal()) {
-                    return -1;
-                }
-            }
-        } else {
-            if (this.rank.ordinal() > otherCard.rank.ordinal()) {
-                return 1;
-            } else if (this.rank.ordinal() < otherCard.rank.ordinal()) {
-                return -1;
-            } else {
-                if (this.suit.ordinal() > otherCard.suit.ordinal()) {
-                    return 1;
-                } else if (this.suit.ordinal() < otherCard.suit.ordinal()) {
-                    return -1;
-                }
-            }
-        }
-
-        return 0;
+        return ORDER.get().compare(this, otherCard);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,181 @@
+package edu.guilford;
+
+/**
+ * Primitive card engine. A card is encoded as an int from 0 to 51 and a set of
+ * cards, such as a hand or a deck, as a long with one bit per card.
+ * <p>
+ * Card index {@code suit * 13 + rank} puts each suit in its own 13 bit block,
+ * so the cards of one suit in a set are a single shift and mask away. Scoring
+ * a set looks up each suit block in a precomputed table of rank value sums
+ * instead of walking the cards, so it never allocates.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Card
+ * @see Hand
+ */
+public final class CardMask {
+
+    /**
+     * The number of ranks in each suit.
+     */
+    public static final int RANKS = 13;
+
+    /**
+     * The number of suits in a deck.
+     */
+    public static final int SUITS = 4;
+
+    /**
+     * The number of cards in a standard deck.
+     */
+    public static final int DECK_SIZE = RANKS * SUITS;
+
+    /**
+     * The set of all 52 cards.
+     */
+    public static final long FULL_DECK = (1L << DECK_SIZE) - 1;
+
+    /**
+     * Mask selecting the 13 bits of one suit.
+     */
+    private static final int SUIT_BITS = (1 << RANKS) - 1;
+
+    /**
+     * The point value of each rank, indexed by rank ordinal.
+     */
+    private static final int[] RANK_VALUES = new int[RANKS];
+
+    /**
+     * The total point value of every possible set of ranks within one suit,
+     * indexed by the 13 bit suit mask.
+     */
+    private static final int[] SUIT_VALUES = new int[1 << RANKS];
+
+    static {
+        for (Card.Rank rank : Card.Rank.values()) {
+            RANK_VALUES[rank.ordinal()] = rank.getValue();
+        }
+        // Each mask's sum is the sum of the mask without its lowest bit plus
+        // the value of that bit, which is always already computed.
+        for (int ranks = 1; ranks < SUIT_VALUES.length; ranks++) {
+            int lowest = Integer.numberOfTrailingZeros(ranks);
+            SUIT_VALUES[ranks] = SUIT_VALUES[ranks & (ranks - 1)] + RANK_VALUES[lowest];
+        }
+    }
+
+    /**
+     * This class only has static methods.
+     */
+    private CardMask() {
+    }
+
+    /**
+     * Gets the index of the card with the given suit and rank.
+     *
+     * @param suit The suit ordinal, from 0 to 3.
+     * @param rank The rank ordinal, from 0 to 12.
+     * @return The card index, from 0 to 51.
+     */
+    public static int index(int suit, int rank) {
+        return suit * RANKS + rank;
+    }
+
+    /**
+     * Gets the suit ordinal of a card index.
+     *
+     * @param index The card index.
+     * @return The suit ordinal, from 0 to 3.
+     */
+    public static int suit(int index) {
+        return index / RANKS;
+    }
+
+    /**
+     * Gets the rank ordinal of a card index.
+     *
+     * @param index The card index.
+     * @return The rank ordinal, from 0 to 12.
+     */
+    public static int rank(int index) {
+        return index % RANKS;
+    }
+
+    /**
+     * Gets the point value of a card index.
+     *
+     * @param index The card index.
+     * @return The point value of the card's rank.
+     */
+    public static int value(int index) {
+        return RANK_VALUES[index % RANKS];
+    }
+
+    /**
+     * Gets the single-card set containing a card index.
+     *
+     * @param index The card index.
+     * @return A mask with only that card's bit set.
+     */
+    public static long bit(int index) {
+        return 1L << index;
+    }
+
+    /**
+     * Checks if a set contains a card.
+     *
+     * @param mask  The set of cards.
+     * @param index The card index.
+     * @return true if the card is in the set.
+     */
+    public static boolean contains(long mask, int index) {
+        return (mask & (1L << index)) != 0;
+    }
+
+    /**
+     * Gets the number of cards in a set.
+     *
+     * @param mask The set of cards.
+     * @return The number of cards.
+     */
+    public static int size(long mask) {
+        return Long.bitCount(mask);
+    }
+
+    /**
+     * Gets the ranks of one suit in a set, as a 13 bit mask.
+     *
+     * @param mask The set of cards.
+     * @param suit The suit ordinal.
+     * @return The ranks present in that suit.
+     */
+    public static int suitMask(long mask, int suit) {
+        return (int) (mask >>> (suit * RANKS)) & SUIT_BITS;
+    }
+
+    /**
+     * Gets the total point value of the cards of one suit in a set.
+     *
+     * @param mask The set of cards.
+     * @param suit The suit ordinal.
+     * @return The value of that suit.
+     */
+    public static int suitValue(long mask, int suit) {
+        return SUIT_VALUES[suitMask(mask, suit)];
+    }
+
+    /**
+     * Scores a set of cards the way a hand is scored: the total value of the
+     * highest valued suit.
+     *
+     * @param mask The set of cards.
+     * @return The value of the best suit.
+     */
+    public static int score(long mask) {
+        int clubs = SUIT_VALUES[(int) mask & SUIT_BITS];
+        int diamonds = SUIT_VALUES[(int) (mask >>> RANKS) & SUIT_BITS];
+        int hearts = SUIT_VALUES[(int) (mask >>> (2 * RANKS)) & SUIT_BITS];
+        int spades = SUIT_VALUES[(int) (mask >>> (3 * RANKS)) & SUIT_BITS];
+        return Math.max(Math.max(clubs, diamonds), Math.max(hearts, spades));
+    }
+}
@@ -0,0 +1,143 @@
+package edu.guilford;
+
+/**
+ * A first-in, first-out queue of card indices in a fixed size ring buffer.
+ * Used for the stock pile: cards are dealt onto the back and drawn from the
+ * front, and neither allocates. Card indices are kept one per byte, so a
+ * full deck takes 52 bytes. The queue is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see CardMask
+ * @see CardStack
+ */
+public class CardRing {
+
+    /**
+     * The ring buffer holding the card indices.
+     */
+    private byte[] cards;
+
+    /**
+     * Position of the card at the front of the queue.
+     */
+    private int head;
+
+    /**
+     * The number of cards in the queue.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty queue with room for a full deck.
+     */
+    public CardRing() {
+        this(CardMask.DECK_SIZE);
+    }
+
+    /**
+     * Constructs an empty queue with room for the given number of cards.
+     *
+     * @param capacity The maximum number of cards in the queue.
+     */
+    public CardRing(int capacity) {
+        cards = new byte[capacity];
+    }
+
+    /**
+     * Adds a card to the back of the queue.
+     *
+     * @param card The card index to add.
+     * @throws IllegalStateException if the queue is full.
+     */
+    public void offer(int card) {
+        if (size == cards.length) {
+            throw new IllegalStateException("Card ring is full (" + cards.length + " cards)");
+        }
+        int tail = head + size;
+        if (tail >= cards.length) {
+            tail -= cards.length;
+        }
+        cards[tail] = (byte) card;
+        size++;
+    }
+
+    /**
+     * Removes the card at the front of the queue.
+     *
+     * @return The card index, or -1 if the queue is empty.
+     */
+    public int poll() {
+        if (size == 0) {
+            return -1;
+        }
+        int card = cards[head];
+        head++;
+        if (head == cards.length) {
+            head = 0;
+        }
+        size--;
+        return card;
+    }
+
+    /**
+     * Looks at the card at the front of the queue without removing it.
+     *
+     * @return The card index, or -1 if the queue is empty.
+     */
+    public int peek() {
+        return size == 0 ? -1 : cards[head];
+    }
+
+    /**
+     * Gets a card by its position in the queue, counting from the front.
+     *
+     * @param i The position, from 0 to size() - 1.
+     * @return The card index at that position.
+     */
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for " + size + " cards");
+        }
+        int position = head + i;
+        if (position >= cards.length) {
+            position -= cards.length;
+        }
+        return cards[position];
+    }
+
+    /**
+     * Gets the number of cards in the queue.
+     *
+     * @return The number of cards.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of cards the queue can hold.
+     *
+     * @return The capacity of the queue.
+     */
+    public int capacity() {
+        return cards.length;
+    }
+
+    /**
+     * Checks if the queue is empty.
+     *
+     * @return true if there are no cards in the queue.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes all cards from the queue.
+     */
+    public void clear() {
+        head = 0;
+        size = 0;
+    }
+}
@@ -0,0 +1,135 @@
+package edu.guilford;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A last-in, first-out stack of card indices in a fixed size array.
+ * Used for the discard pile: pushing and popping never allocate, and unlike
+ * java.util.Stack there is no synchronization. Card indices are kept one per
+ * byte, so a full deck takes 52 bytes. The stack is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see CardMask
+ * @see CardRing
+ */
+public class CardStack {
+
+    /**
+     * The card indices, from the bottom of the stack up.
+     */
+    private byte[] cards;
+
+    /**
+     * The number of cards on the stack.
+     */
+    private int size;
+
+    /**
+     * Constructs an empty stack with room for a full deck.
+     */
+    public CardStack() {
+        this(CardMask.DECK_SIZE);
+    }
+
+    /**
+     * Constructs an empty stack with room for the given number of cards.
+     *
+     * @param capacity The maximum number of cards on the stack.
+     */
+    public CardStack(int capacity) {
+        cards = new byte[capacity];
+    }
+
+    /**
+     * Puts a card on top of the stack.
+     *
+     * @param card The card index to push.
+     * @throws IllegalStateException if the stack is full.
+     */
+    public void push(int card) {
+        if (size == cards.length) {
+            throw new IllegalStateException("Card stack is full (" + cards.length + " cards)");
+        }
+        cards[size++] = (byte) card;
+    }
+
+    /**
+     * Removes the card on top of the stack.
+     *
+     * @return The card index, or -1 if the stack is empty.
+     */
+    public int pop() {
+        return size == 0 ? -1 : cards[--size];
+    }
+
+    /**
+     * Looks at the card on top of the stack without removing it.
+     *
+     * @return The card index, or -1 if the stack is empty.
+     */
+    public int peek() {
+        return size == 0 ? -1 : cards[size - 1];
+    }
+
+    /**
+     * Gets a card by its position in the stack, counting from the bottom.
+     *
+     * @param i The position, from 0 to size() - 1.
+     * @return The card index at that position.
+     */
+    public int get(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for " + size + " cards");
+        }
+        return cards[i];
+    }
+
+    /**
+     * Gets the number of cards on the stack.
+     *
+     * @return The number of cards.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of cards the stack can hold.
+     *
+     * @return The capacity of the stack.
+     */
+    public int capacity() {
+        return cards.length;
+    }
+
+    /**
+     * Checks if the stack is empty.
+     *
+     * @return true if there are no cards on the stack.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Shuffles the cards on the stack in place with a Fisher-Yates shuffle.
+     *
+     * @param rand The random number generator to shuffle with.
+     */
+    public void shuffle(RandomGenerator rand) {
+        for (int i = size - 1; i > 0; i--) {
+            int j = rand.nextInt(i + 1);
+            byte temp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = temp;
+        }
+    }
+
+    /**
+     * Removes all cards from the stack.
+     */
+    public void clear() {
+        size = 0;
+    }
+}
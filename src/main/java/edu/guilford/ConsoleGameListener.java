@@ -0,0 +1,135 @@
+package edu.guilford;
+
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * A game listener that narrates the game as text, one line per action.
+ * This is the output a Game printed to the console before the rules engine
+ * was separated from presentation.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameListener
+ */
+public class ConsoleGameListener implements GameListener {
+
+    /**
+     * The stream the game is narrated to.
+     */
+    private PrintStream out;
+
+    /**
+     * The player who reached 31 in the current round, or null if the round is
+     * being resolved by a knock.
+     */
+    private Player thirtyOnePlayer;
+
+    /**
+     * Constructs a listener that prints to System.out.
+     */
+    public ConsoleGameListener() {
+        this(System.out);
+    }
+
+    /**
+     * Constructs a listener that prints to the given stream.
+     *
+     * @param out The stream to print to.
+     */
+    public ConsoleGameListener(PrintStream out) {
+        this.out = out;
+    }
+
+    @Override
+    public void roundStarted() {
+        thirtyOnePlayer = null;
+        out.println("Starting a new round...");
+    }
+
+    @Override
+    public void turnStarted(Player player, Card topDiscard) {
+        out.println(player.getName() + "'s turn:");
+        out.println("Current hand: " + player.getHand());
+        out.println("Top of discard pile: " + topDiscard);
+    }
+
+    @Override
+    public void discardPileRefilled(Card card) {
+        out.println("Discard pile was empty. Moved " + card + " from stockpile to discard pile.");
+    }
+
+    @Override
+    public void stockPileRecycled(int cards) {
+        out.println("Stockpile was empty. Shuffled " + cards + " cards from the discard pile into the stockpile.");
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card, boolean fromDiscard) {
+        if (fromDiscard) {
+            out.println(player.getName() + " picks up " + card + " from the discard pile.");
+        } else {
+            out.println(player.getName() + " draws from the stockpile.");
+        }
+    }
+
+    @Override
+    public void cardDiscarded(Player player, Card card, boolean toStock) {
+        if (toStock) {
+            out.println(player.getName() + " discards " + card + " to the stockpile.");
+        } else {
+            out.println(player.getName() + " discards " + card + " to the discard pile.");
+        }
+    }
+
+    @Override
+    public void thirtyOne(Player player) {
+        thirtyOnePlayer = player;
+        out.println(player.getName() + " reaches 31! Round ends immediately!");
+    }
+
+    @Override
+    public void knocked(Player player) {
+        out.println(player.getName() + " knocks!");
+    }
+
+    @Override
+    public void turnLimitReached(int turns) {
+        out.println("Nobody has ended the round after " + turns + " turns. The round is over!");
+    }
+
+    @Override
+    public void scoreRevealed(Player player, int score) {
+        out.println(player.getName() + " has a score of " + score);
+    }
+
+    @Override
+    public void livesLost(Player player, int lives) {
+        if (thirtyOnePlayer != null) {
+            out.println(player.getName() + " loses a life because " + thirtyOnePlayer.getName()
+                    + " reached 31!");
+        } else if (lives == 2) {
+            out.println(player.getName() + " has the lowest hand and loses 2 lives!");
+        } else {
+            out.println(player.getName() + " has the lowest hand and loses 1 life!");
+        }
+    }
+
+    @Override
+    public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+        if (!thirtyOne) {
+            out.println("End of round. Player lives:");
+            for (Player player : players) {
+                out.println(player.getName() + ": " + player.getLives() + " lives remaining.");
+            }
+        }
+        thirtyOnePlayer = null;
+    }
+
+    @Override
+    public void gameEnded(Player winner) {
+        if (winner != null) {
+            out.println(winner.getName() + " is the winner!");
+        }
+    }
+}
@@ -1,114 +1,286 @@
 package edu.guilford;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a standard deck of playing cards.
  * Provides functionality to build, shuffle, deal, and manage the deck.
- * 
+ * The cards remaining in the deck are also kept as a {@link CardMask} set.
+ * <p>
+ * A deck can also be a shoe of several standard decks shuffled together, for
+ * tables too large for one deck. A shoe holds several copies of every card,
+ * so its card mask holds the cards with at least one copy left.
+ * <p>
+ * The deck is stored in one fixed array of 52 card indices per deck, one
+ * byte each, that is reused for the life of the deck; cards are handed out
+ * as the canonical cards from {@link Card#ofIndex(int)}. Dealing moves a
+ * top-of-deck position forward instead of removing cards, and building and
+ * shuffling rearrange the array in place, so starting a new round allocates
+ * nothing.
+ *
  * @author Miguel A. Nunez Palomares
  * @version 1.0
- * @see java.util.ArrayList, java.util.Random
+ * @see java.util.ArrayList, java.util.random.RandomGenerator
  */
 
 public class Deck {
 
     /**
-     * ArrayList of cards representing the deck.
+     * Array of card indices representing the deck. The cards still in the
+     * deck are the ones from position top up to, but not including, position
+     * end.
      */
-    private ArrayList<Card> deck = new ArrayList<Card>();
+    private byte[] deck;
 
     /**
-     * Random object used for shuffling the deck.
+     * The number of standard decks in the deck.
      */
-    private Random rand = new Random();
+    private int decks;
+
+    /**
+     * The number of copies of every card still in the deck, indexed by card
+     * index. Only used when the deck holds more than one standard deck.
+     */
+    private int[] copies;
+
+    /**
+     * Position of the top card of the deck, the next one to be dealt.
+     */
+    private int top;
+
+    /**
+     * Position just after the bottom card of the deck.
+     */
+    private int end;
+
+    /**
+     * The cards in the deck as a set of card indices.
+     */
+    private long mask;
+
+    /**
+     * Random number generator used for shuffling the deck.
+     */
+    private RandomGenerator rand;
 
     /**
      * Constructs a new Deck and builds a standard deck of 52 playing cards.
      */
     public Deck() {
+        this(new Random());
+    }
+
+    /**
+     * Constructs a new Deck that shuffles with the given random number
+     * generator and builds a standard deck of 52 playing cards.
+     *
+     * @param rand The random number generator used for shuffling, for example a
+     *             SplittableRandom, ThreadLocalRandom.current() or a seeded
+     *             XoroshiroRandom.
+     */
+    public Deck(RandomGenerator rand) {
+        this(rand, 1);
+    }
+
+    /**
+     * Constructs a new shoe of the given number of standard decks that
+     * shuffles with the given random number generator.
+     *
+     * @param rand  The random number generator used for shuffling.
+     * @param decks The number of standard decks in the shoe.
+     */
+    public Deck(RandomGenerator rand, int decks) {
+        if (decks < 1) {
+            throw new IllegalArgumentException("A deck needs at least 1 standard deck");
+        }
+        this.rand = rand;
+        this.decks = decks;
+        deck = new byte[decks * CardMask.DECK_SIZE];
+        copies = decks > 1 ? new int[CardMask.DECK_SIZE] : null;
         build();
     }
 
     /**
-     * Gets the list of cards in the deck.
-     * 
+     * Gets the list of cards in the deck, from the top card down.
+     * The list is a copy; changing it does not change the deck.
+     *
      * @return An ArrayList containing all the cards in the deck.
      */
     public ArrayList<Card> getDeck() {
-        return deck;
+        ArrayList<Card> cards = new ArrayList<Card>(size());
+        for (int i = top; i < end; i++) {
+            cards.add(Card.ofIndex(deck[i]));
+        }
+        return cards;
+    }
+
+    /**
+     * Gets the card with the given card index, whether or not it is still in
+     * the deck.
+     *
+     * @param index The card index, from 0 to 51.
+     * @return The canonical card with that index.
+     * @see Card#ofIndex(int)
+     */
+    public Card getCard(int index) {
+        return Card.ofIndex(index);
+    }
+
+    /**
+     * Sets the random number generator used for shuffling.
+     *
+     * @param rand The random number generator to shuffle with.
+     */
+    public void setRandom(RandomGenerator rand) {
+        this.rand = rand;
     }
 
     /**
      * Clears the deck of all cards.
      */
     public void clear() {
-        deck.clear();
+        top = 0;
+        end = 0;
+        mask = 0L;
+    }
+
+    /**
+     * Gets the number of standard decks in the deck.
+     *
+     * @return The number of decks, 1 for a standard deck.
+     */
+    public int getDecks() {
+        return decks;
     }
 
     /**
-     * Builds a standard deck of 52 cards (4 suits, 13 ranks each).
+     * Builds a standard deck of 52 cards (4 suits, 13 ranks each), or 52 cards
+     * for every deck in a shoe, replacing any cards still in the deck.
      */
     public void build() {
-        for (Card.Suit suit : Card.Suit.values()) {
-            for (Card.Rank rank : Card.Rank.values()) {
-                deck.add(new Card(suit, rank));
-            }
+        for (int i = 0; i < deck.length; i++) {
+            deck[i] = (byte) (i % CardMask.DECK_SIZE);
         }
+        if (copies != null) {
+            Arrays.fill(copies, decks);
+        }
+        top = 0;
+        end = deck.length;
+        mask = CardMask.FULL_DECK;
     }
 
     /**
-     * Shuffles the deck by randomly rearranging the cards.
+     * Shuffles the deck in place with a Fisher-Yates shuffle: every position,
+     * from the bottom up, swaps with a random position at or above it. Every
+     * order of the cards is equally likely.
      */
     public void shuffle() {
-        ArrayList<Card> tempDeck = new ArrayList<Card>();
-        while (deck.size() > 0) {
-            int loc = rand.nextInt(deck.size());
-            tempDeck.add(deck.get(loc));
-            deck.remove(loc);
+        for (int i = end - 1; i > top; i--) {
+            int j = top + rand.nextInt(i - top + 1);
+            byte temp = deck[i];
+            deck[i] = deck[j];
+            deck[j] = temp;
+        }
+    }
+
+    /**
+     * Sorts the cards remaining in the deck, the first card in the order ending
+     * up on top.
+     *
+     * @param order The order to sort in, such as Card.BY_SUIT or Card.BY_RANK,
+     *              or null for the calling thread's Card.getSortOrder().
+     */
+    public void sort(Comparator<Card> order) {
+        if (order == null) {
+            order = Card.getSortOrder();
+        }
+        Card[] cards = new Card[size()];
+        for (int i = 0; i < cards.length; i++) {
+            cards[i] = Card.ofIndex(deck[top + i]);
+        }
+        Arrays.sort(cards, order);
+        for (int i = 0; i < cards.length; i++) {
+            deck[top + i] = (byte) cards[i].index();
         }
-        deck = tempDeck;
     }
 
     /**
      * Picks and removes a card from the deck at a specified index.
-     * 
+     *
      * @param i The index of the card to pick.
      * @return The card picked from the deck.
      */
     public Card pick(int i) {
-        Card picked = deck.remove(i);
+        if (i < 0 || i >= size()) {
+            throw new IndexOutOfBoundsException("Index " + i + " out of bounds for deck of " + size());
+        }
+        Card picked = Card.ofIndex(deck[top + i]);
+        // Shift the cards above the picked one down into its place
+        System.arraycopy(deck, top, deck, top + 1, i);
+        top++;
+        removed(picked);
         return picked;
     }
 
     /**
      * Deals the top card from the deck (removes and returns it).
-     * 
+     *
      * @return The top card from the deck.
      */
     public Card deal() {
-        return deck.remove(0);
+        if (top == end) {
+            throw new IndexOutOfBoundsException("Cannot deal from an empty deck");
+        }
+        Card dealt = Card.ofIndex(deck[top++]);
+        removed(dealt);
+        return dealt;
+    }
+
+    /**
+     * Takes a card that has left the deck out of the card mask, unless a
+     * shoe still holds another copy of it.
+     *
+     * @param card The card that left the deck.
+     */
+    private void removed(Card card) {
+        if (copies == null || --copies[card.index()] == 0) {
+            mask &= ~CardMask.bit(card.index());
+        }
+    }
+
+    /**
+     * Gets the cards remaining in the deck as a set of card indices. In a shoe
+     * a card is in the set while at least one copy of it is left.
+     *
+     * @return The deck's card mask.
+     * @see CardMask
+     */
+    public long getMask() {
+        return mask;
     }
 
     /**
      * Gets the number of cards remaining in the deck.
-     * 
+     *
      * @return The size of the deck.
      */
     public int size() {
-        return deck.size();
+        return end - top;
     }
 
     /**
      * Returns a string representation of the deck with each card on a new line.
-     * 
+     *
      * @return A string representation of the deck.
      */
     public String toString() {
         String deckString = "";
-        for (Card card : deck) {
-            deckString += card.toString() + "\n";
+        for (int i = top; i < end; i++) {
+            deckString += Card.ofIndex(deck[i]).toString() + "\n";
         }
         return deckString;
     }
@@ -0,0 +1,123 @@
+package edu.guilford;
+
+/**
+ * The strategy players use unless they are given another one.
+ * Takes the top discard when it matches the suit the player holds most of,
+ * discards the card that leaves the highest scoring three cards, and knocks
+ * once the hand is worth at least a fixed threshold.
+ * The strategy has no state, so one instance can be shared by any number of
+ * players and threads.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Strategy
+ */
+public class DefaultStrategy implements Strategy {
+
+    /**
+     * The hand value at which the default strategy knocks.
+     */
+    public static final int DEFAULT_KNOCK_THRESHOLD = 25;
+
+    /**
+     * A shared instance that knocks at the default threshold.
+     */
+    public static final DefaultStrategy INSTANCE = new DefaultStrategy();
+
+    /**
+     * The lowest hand value the strategy knocks with.
+     */
+    private final int knockThreshold;
+
+    /**
+     * Constructs a strategy that knocks at 25 or more.
+     */
+    public DefaultStrategy() {
+        this(DEFAULT_KNOCK_THRESHOLD);
+    }
+
+    /**
+     * Constructs a strategy that knocks at the given hand value or more. The
+     * game never lets a hand worth less than {@link Game#KNOCK_MINIMUM} knock,
+     * so a lower threshold knocks at that minimum.
+     *
+     * @param knockThreshold The lowest hand value to knock with.
+     */
+    public DefaultStrategy(int knockThreshold) {
+        this.knockThreshold = knockThreshold;
+    }
+
+    /**
+     * Gets the lowest hand value the strategy knocks with.
+     *
+     * @return The knock threshold.
+     */
+    public int getKnockThreshold() {
+        return knockThreshold;
+    }
+
+    /**
+     * Takes the top card of the discard pile if it is the hand's preferred suit.
+     *
+     * @param hand       The player's hand.
+     * @param topDiscard The top card of the discard pile.
+     * @return true if the player should take the top card; false otherwise.
+     */
+    @Override
+    public boolean shouldTakeDiscard(Hand hand, Card topDiscard) {
+        Card.Suit preferredSuit = getPreferredSuit(hand);
+
+        if (topDiscard.getSuit() == preferredSuit) { // If the top card of the discard pile is the preferred suit.
+                                                     // The player should take the card.
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Discards the card that leaves the highest scoring three cards, looked up
+     * in the HandTable. A hand with duplicate cards from a shoe is worked out
+     * from its suit values instead.
+     *
+     * @param hand The player's 4 card hand.
+     * @return The card to discard.
+     */
+    @Override
+    public Card chooseDiscard(Hand hand) {
+        if (hand.hasDuplicates()) {
+            return hand.getBestDiscard();
+        }
+        int discardIndex = HandTable.bestDiscard(hand.getMask()); // Looks up the best card to get rid of.
+        Card cardToDiscard = null;
+
+        for (Card card : hand.getHand()) { // This loop finds the card in the player's hand with that index.
+            if (card.index() == discardIndex) {
+                cardToDiscard = card;
+                break;
+            }
+        }
+        return cardToDiscard;
+    }
+
+    /**
+     * Knocks if the hand value is at least the knock threshold.
+     *
+     * @param hand The player's hand.
+     * @return true if the player should knock; false otherwise.
+     */
+    @Override
+    public boolean shouldKnock(Hand hand) {
+        return hand.getTotalValue() >= knockThreshold; // The player should knock if their hand is good enough.
+    }
+
+    /**
+     * Gets the preferred suit for the player based on the suits in their hand.
+     * 
+     * @param hand
+     * @return The preferred suit for the player.
+     * @see Hand#getPreferredSuit()
+     */
+    static Card.Suit getPreferredSuit(Hand hand) {
+        return hand.getPreferredSuit();
+    }
+}
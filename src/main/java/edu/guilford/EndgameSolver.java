@@ -0,0 +1,585 @@
+package edu.guilford;
+
+import java.util.Arrays;
+
+/**
+ * Solves the rest of a two player round in a small model of the game, for
+ * positions with only a few cards left in play.
+ * <p>
+ * The solver sees both hands, the top of the discard pile and the next few
+ * cards of the stock pile, and plays the round out move by move: the player
+ * to move takes the top discard or draws from the stock, chooses a discard,
+ * which lands on the discard pile or in the stock pile with equal chance,
+ * wins at once with 31, and may knock with a hand worth at least
+ * {@link Game#KNOCK_MINIMUM}. Both players choose every move to
+ * maximize their chance of winning the round, counting a draw as half a win.
+ * Every stock card is equally likely to be drawn next, which averages over
+ * every order the next cards could be in. Within the model the answer is
+ * exact; it differs from a round of {@link Game} in these ways:
+ * <ul>
+ * <li>Cards covered on the discard pile are out of play. When the top
+ * discard is taken, the model turns the next stock card up in its place,
+ * where Game shows the card underneath.</li>
+ * <li>A card discarded into the stock goes to the back of it, as in Game,
+ * and is not drawn again before the horizon. That is only true of Game
+ * while the stock holds more cards than are drawn before the horizon.</li>
+ * <li>Once the stock cards given to the solver run out, the top discard must
+ * be taken, and with no top discard either the round goes to a showdown.
+ * Game would recycle the discard pile into the stock instead.</li>
+ * <li>A round still going after the horizon is settled by a showdown, like a
+ * round that reaches the game's turn limit. Lives are not counted, so a
+ * knocker who loses is not told apart from any other loser.</li>
+ * </ul>
+ * {@link #solve(Game)} takes the position from a game in progress: the stock
+ * cards are the ones that will be drawn first, and the game's turn limit and
+ * the rule that nobody knocks on a round's first turn are kept.
+ * <p>
+ * At most {@link #MAX_CARDS} cards may be in play. They are renumbered from 0,
+ * so a position packs into one long: three 16 bit card sets (the mover's hand,
+ * the other hand and the stock), the top discard and the turns left. Solved
+ * positions are kept in a memo under that key, so positions reached in
+ * different ways are only solved once. A position that needs more than the
+ * solver's position limit is given up on rather than left to fill the heap.
+ * A solver is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Game
+ */
+public class EndgameSolver {
+
+    /**
+     * The most cards that may be in play: both hands, the top discard and the
+     * stock.
+     */
+    public static final int MAX_CARDS = 16;
+
+    /**
+     * The number of turns solved unless set otherwise. Positions taken from a
+     * game with solve(Game) stay well within the default position limit at
+     * this horizon.
+     */
+    public static final int DEFAULT_HORIZON = 4;
+
+    /**
+     * The most positions a solve may visit unless set otherwise.
+     */
+    public static final int DEFAULT_MAX_POSITIONS = 1 << 20;
+
+    /**
+     * The most turns the solver can look ahead.
+     */
+    public static final int MAX_HORIZON = (1 << 11) - 1;
+
+    /**
+     * The chance of winning, drawing and losing a round, for the player to
+     * move.
+     */
+    public static final class Outcome {
+
+        /**
+         * The chance the player to move wins the round.
+         */
+        private final double win;
+
+        /**
+         * The chance both players have the lowest hand.
+         */
+        private final double draw;
+
+        /**
+         * The chance the player to move loses the round.
+         */
+        private final double lose;
+
+        /**
+         * Constructs an outcome.
+         *
+         * @param win  The chance of winning.
+         * @param draw The chance of a draw.
+         * @param lose The chance of losing.
+         */
+        Outcome(double win, double draw, double lose) {
+            this.win = win;
+            this.draw = draw;
+            this.lose = lose;
+        }
+
+        /**
+         * Gets the chance the player to move wins the round.
+         *
+         * @return The chance, from 0 to 1.
+         */
+        public double getWin() {
+            return win;
+        }
+
+        /**
+         * Gets the chance the round ends with both hands equally low.
+         *
+         * @return The chance, from 0 to 1.
+         */
+        public double getDraw() {
+            return draw;
+        }
+
+        /**
+         * Gets the chance the player to move loses the round.
+         *
+         * @return The chance, from 0 to 1.
+         */
+        public double getLose() {
+            return lose;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("win %.4f, draw %.4f, lose %.4f", win, draw, lose);
+        }
+    }
+
+    /**
+     * The number of turns solved before a showdown.
+     */
+    private int horizon;
+
+    /**
+     * The most positions a solve may keep in its memo.
+     */
+    private int maxPositions;
+
+    /**
+     * The card index of every card in play, by local number.
+     */
+    private int[] cards = new int[MAX_CARDS];
+
+    /**
+     * The number of cards in play.
+     */
+    private int count;
+
+    /**
+     * The most turns left, counting the current one, at which a player may
+     * knock in the current solve.
+     */
+    private int knockTurns;
+
+    /**
+     * Memo keys; 0 marks an empty slot, which no position packs to since the
+     * mover always holds cards.
+     */
+    private long[] keys;
+
+    /**
+     * Memo: the mover's chance of winning, by slot.
+     */
+    private double[] wins;
+
+    /**
+     * Memo: the chance of a draw, by slot.
+     */
+    private double[] draws;
+
+    /**
+     * The number of positions in the memo.
+     */
+    private int size;
+
+    /**
+     * Constructs a solver with the default horizon and position limit.
+     */
+    public EndgameSolver() {
+        this(DEFAULT_HORIZON, DEFAULT_MAX_POSITIONS);
+    }
+
+    /**
+     * Constructs a solver that looks the given number of turns ahead.
+     *
+     * @param horizon      The number of turns before a showdown.
+     * @param maxPositions The most positions a solve may visit before giving
+     *                     up.
+     */
+    public EndgameSolver(int horizon, int maxPositions) {
+        if (horizon < 1 || horizon > MAX_HORIZON) {
+            throw new IllegalArgumentException("The horizon must be from 1 to " + MAX_HORIZON + " turns");
+        }
+        this.horizon = horizon;
+        this.maxPositions = maxPositions;
+        keys = new long[1 << 12];
+        wins = new double[keys.length];
+        draws = new double[keys.length];
+    }
+
+    /**
+     * Checks if a position is small enough to solve.
+     *
+     * @param mover      The hand of the player to move.
+     * @param other      The other player's hand.
+     * @param stock      The cards in the stock pile.
+     * @param topDiscard The card index of the top discard, or -1 if there is
+     *                   none.
+     * @return true if at most MAX_CARDS cards are in play.
+     */
+    public static boolean canSolve(long mover, long other, long stock, int topDiscard) {
+        long inPlay = mover | other | stock | (topDiscard < 0 ? 0L : CardMask.bit(topDiscard));
+        return Long.bitCount(inPlay) <= MAX_CARDS;
+    }
+
+    /**
+     * Solves a position in which a player is about to start a turn holding 3
+     * cards, up to the solver's horizon. Knocking is allowed from the first
+     * turn.
+     *
+     * @param mover      The hand of the player to move, as a card mask.
+     * @param other      The other player's hand, as a card mask.
+     * @param stock      The stock cards that may be drawn, as a card mask.
+     * @param topDiscard The card index of the top discard, or -1 if there is
+     *                   none.
+     * @return The chances of the round's outcomes for the player to move, or
+     *         null if the position needs more than the solver's position
+     *         limit.
+     * @throws IllegalArgumentException if the hands do not hold 3 cards each,
+     *                                  the card sets overlap, or more than
+     *                                  MAX_CARDS cards are in play.
+     */
+    public Outcome solve(long mover, long other, long stock, int topDiscard) {
+        long top = topDiscard < 0 ? 0L : CardMask.bit(topDiscard);
+        if (Long.bitCount(mover) != 3 || Long.bitCount(other) != 3) {
+            throw new IllegalArgumentException("Both hands must hold 3 cards");
+        }
+        if ((mover & other) != 0 || ((mover | other) & (stock | top)) != 0 || (stock & top) != 0) {
+            throw new IllegalArgumentException("A card cannot be in two places");
+        }
+        if (!canSolve(mover, other, stock, topDiscard)) {
+            throw new IllegalArgumentException("At most " + MAX_CARDS + " cards can be in play");
+        }
+        return solve(mover, other, stock, topDiscard, horizon, horizon);
+    }
+
+    /**
+     * Solves the position at the start of the current turn of a two player
+     * game. The stock cards are the next ones the game's stock pile will
+     * deal, as many as fit in MAX_CARDS, so any such position can be solved.
+     * The round is solved to the horizon, or to the game's turn limit if it
+     * is nearer and ends the round in a showdown.
+     *
+     * @param game A one deck game with two players left, waiting for the
+     *             current player's draw decision.
+     * @return The chances of the round's outcomes for the current player, or
+     *         null if the position needs more than the solver's position
+     *         limit.
+     * @throws IllegalStateException    if the game is not waiting for a draw
+     *                                  decision or more than two players are
+     *                                  left.
+     * @throws IllegalArgumentException if the game deals from more than one
+     *                                  deck.
+     */
+    public Outcome solve(Game game) {
+        if (game.getPendingDecision() != Game.Decision.DRAW || game.getAliveCount() != 2) {
+            throw new IllegalStateException("The game must be waiting for a draw with two players left");
+        }
+        if (game.getDecks() != 1) {
+            throw new IllegalArgumentException("Only one deck games can be solved");
+        }
+        Player current = game.getCurrentPlayer();
+        long other = 0L;
+        for (Player player : game.getPlayers()) {
+            if (player.isAlive() && player != current) {
+                other = player.getHand().getMask();
+            }
+        }
+        int topDiscard = game.getTopDiscard().index();
+        int turns = horizon;
+        if (game.getTurnLimitResolution() == Game.TurnLimitResolution.SHOWDOWN) {
+            turns = Math.min(turns, game.getTurnLimit() - game.getTurnsPlayed());
+        }
+        // Every turn uses at most one stock card, and both hands and the top
+        // discard take 7 of the cards in play
+        long stock = game.getStockMask(Math.min(turns, MAX_CARDS - 7));
+        // Knocking is allowed once both players have had a turn this round
+        int knock = game.getTurnsPlayed() == 0 ? turns - 1 : turns;
+        return solve(current.getHand().getMask(), other, stock, topDiscard, turns, knock);
+    }
+
+    /**
+     * Solves a checked position.
+     *
+     * @param mover      The hand of the player to move.
+     * @param other      The other player's hand.
+     * @param stock      The stock cards.
+     * @param topDiscard The card index of the top discard, or -1.
+     * @param turns      The turns left before a showdown, including this one.
+     * @param knockTurns The most turns left at which knocking is allowed.
+     * @return The outcome, or null if the position limit was reached.
+     */
+    private Outcome solve(long mover, long other, long stock, int topDiscard, int turns, int knockTurns) {
+        long top = topDiscard < 0 ? 0L : CardMask.bit(topDiscard);
+        this.knockTurns = knockTurns;
+        // Number the cards in play from 0 and start a fresh memo
+        count = 0;
+        for (long rest = mover | other | stock | top; rest != 0; rest &= rest - 1) {
+            cards[count++] = Long.numberOfTrailingZeros(rest);
+        }
+        Arrays.fill(keys, 0L);
+        size = 0;
+        double[] result;
+        try {
+            result = turn(local(mover), local(other), local(stock),
+                    topDiscard < 0 ? -1 : Long.numberOfTrailingZeros(local(top)), turns);
+        } catch (PositionLimitReached e) {
+            return null;
+        }
+        return new Outcome(result[0], result[1], 1.0 - result[0] - result[1]);
+    }
+
+    /**
+     * Gets the number of positions solved by the last call to solve().
+     *
+     * @return The number of positions in the memo.
+     */
+    public int getPositions() {
+        return size;
+    }
+
+    /**
+     * Solves the start of a turn.
+     *
+     * @param mover The mover's hand, in local numbers.
+     * @param other The other hand.
+     * @param stock The stock.
+     * @param top   The local number of the top discard, or -1.
+     * @param turns The turns left before a showdown, including this one.
+     * @return The mover's chance of winning and of a draw.
+     */
+    private double[] turn(int mover, int other, int stock, int top, int turns) {
+        long key = (long) mover | ((long) other << 16) | ((long) stock << 32) | ((long) (top + 1) << 48)
+                | ((long) turns << 53);
+        int slot = find(key);
+        if (keys[slot] == key) {
+            return new double[] { wins[slot], draws[slot] };
+        }
+        double[] best;
+        if (top < 0 && stock == 0) {
+            best = showdown(mover, other); // Nothing left to draw
+        } else if (top < 0) {
+            // The empty discard pile is refilled from the stock
+            best = new double[2];
+            int n = Integer.bitCount(stock);
+            for (int rest = stock; rest != 0; rest &= rest - 1) {
+                int card = Integer.numberOfTrailingZeros(rest);
+                accumulate(best, turn(mover, other, stock & ~(1 << card), card, turns), 1.0 / n);
+            }
+        } else {
+            best = afterDraw(mover | (1 << top), other, stock, -1, turns); // Take the top discard
+            if (stock != 0 && best[0] < 1.0) {
+                double[] draw = new double[2];
+                int n = Integer.bitCount(stock);
+                for (int rest = stock; rest != 0; rest &= rest - 1) {
+                    int card = Integer.numberOfTrailingZeros(rest);
+                    accumulate(draw, afterDraw(mover | (1 << card), other, stock & ~(1 << card), top, turns),
+                            1.0 / n);
+                }
+                best = better(best, draw);
+            }
+        }
+        store(slot, key, best);
+        return best;
+    }
+
+    /**
+     * Solves the choice of discard from a four card hand, followed by the
+     * equally likely destinations of the discard. A discard into the stock
+     * goes to the back of it and so leaves play.
+     *
+     * @param hand  The mover's four cards.
+     * @param other The other hand.
+     * @param stock The stock.
+     * @param top   The top discard, or -1.
+     * @param turns The turns left, including this one.
+     * @return The mover's chance of winning and of a draw.
+     */
+    private double[] afterDraw(int hand, int other, int stock, int top, int turns) {
+        double[] best = null;
+        for (int rest = hand; rest != 0; rest &= rest - 1) {
+            int card = Integer.numberOfTrailingZeros(rest);
+            int kept = hand & ~(1 << card);
+            double[] value = new double[2];
+            accumulate(value, afterDiscard(kept, other, stock, card, turns), 0.5); // Onto the discard pile
+            accumulate(value, afterDiscard(kept, other, stock, top, turns), 0.5); // To the back of the stock
+            best = best == null ? value : better(best, value);
+            if (best[0] == 1.0) {
+                break; // Nothing beats a sure win
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Solves the end of a turn: 31, the choice to knock, or the other player's
+     * turn.
+     *
+     * @param mover The mover's three cards.
+     * @param other The other hand.
+     * @param stock The stock.
+     * @param top   The top discard, or -1.
+     * @param turns The turns left, including this one.
+     * @return The mover's chance of winning and of a draw.
+     */
+    private double[] afterDiscard(int mover, int other, int stock, int top, int turns) {
+        if (score(mover) == 31) {
+            return new double[] { 1.0, 0.0 };
+        }
+        double[] knock = showdown(mover, other);
+        boolean mayKnock = turns <= knockTurns && score(mover) >= Game.KNOCK_MINIMUM;
+        if (turns == 1 || (mayKnock && knock[0] == 1.0)) {
+            return knock; // The horizon ends the round, or knocking surely wins
+        }
+        double[] next = turn(other, mover, stock, top, turns - 1);
+        double[] carryOn = { 1.0 - next[0] - next[1], next[1] }; // The other player's loss is the mover's win
+        return mayKnock ? better(knock, carryOn) : carryOn;
+    }
+
+    /**
+     * Compares two hands: the lower one loses, equal hands draw.
+     *
+     * @param mover The mover's hand.
+     * @param other The other hand.
+     * @return The mover's chance of winning and of a draw.
+     */
+    private double[] showdown(int mover, int other) {
+        int a = score(mover);
+        int b = score(other);
+        return new double[] { a > b ? 1.0 : 0.0, a == b ? 1.0 : 0.0 };
+    }
+
+    /**
+     * Chooses the better of two options for the mover, counting a draw as half
+     * a win. Ties keep the first option.
+     *
+     * @param first  The first option.
+     * @param second The second option.
+     * @return The better option.
+     */
+    private static double[] better(double[] first, double[] second) {
+        return second[0] + second[1] / 2 > first[0] + first[1] / 2 ? second : first;
+    }
+
+    /**
+     * Adds a weighted outcome to a running average.
+     *
+     * @param total  The running average.
+     * @param value  The outcome.
+     * @param weight The outcome's chance.
+     */
+    private static void accumulate(double[] total, double[] value, double weight) {
+        total[0] += value[0] * weight;
+        total[1] += value[1] * weight;
+    }
+
+    /**
+     * Scores a hand given in local numbers.
+     *
+     * @param hand The hand.
+     * @return The value of its best suit.
+     */
+    private int score(int hand) {
+        long mask = 0L;
+        for (int rest = hand; rest != 0; rest &= rest - 1) {
+            mask |= CardMask.bit(cards[Integer.numberOfTrailingZeros(rest)]);
+        }
+        return CardMask.score(mask);
+    }
+
+    /**
+     * Converts a card mask to local numbers.
+     *
+     * @param mask A set of cards in play.
+     * @return The same cards in local numbers.
+     */
+    private int local(long mask) {
+        int result = 0;
+        for (int i = 0; i < count; i++) {
+            if (CardMask.contains(mask, cards[i])) {
+                result |= 1 << i;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Finds the memo slot of a key, or the empty slot where it would go.
+     *
+     * @param key The packed position.
+     * @return The slot.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h >>> 32) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Stores a solved position, growing the memo when it is half full.
+     *
+     * @param slot  The slot found for the key.
+     * @param key   The packed position.
+     * @param value The mover's chance of winning and of a draw.
+     */
+    private void store(int slot, long key, double[] value) {
+        if (keys[slot] != key) {
+            // The slot may have been taken while the position was being solved
+            slot = find(key);
+        }
+        keys[slot] = key;
+        wins[slot] = value[0];
+        draws[slot] = value[1];
+        if (++size > maxPositions) {
+            throw new PositionLimitReached();
+        }
+        if (size * 2 > keys.length) {
+            grow();
+        }
+    }
+
+    /**
+     * Doubles the memo and moves every position into it.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldWins = wins;
+        double[] oldDraws = draws;
+        keys = new long[oldKeys.length * 2];
+        wins = new double[keys.length];
+        draws = new double[keys.length];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = find(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                wins[slot] = oldWins[i];
+                draws[slot] = oldDraws[i];
+            }
+        }
+    }
+
+    /**
+     * Unwinds a solve that has visited too many positions.
+     */
+    private static class PositionLimitReached extends RuntimeException {
+
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Constructs the exception without a stack trace, which is never read.
+         */
+        PositionLimitReached() {
+            super(null, null, false, false);
+        }
+    }
+}
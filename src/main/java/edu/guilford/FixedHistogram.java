@@ -0,0 +1,195 @@
+package edu.guilford;
+
+import java.io.IOException;
+
+/**
+ * A histogram of whole numbers in equal-width buckets over a fixed range,
+ * such as hand scores or turns per round.
+ * <p>
+ * Values below the range are counted as underflow and values above it as
+ * overflow, so the histogram never grows however many values it sees.
+ * Histograms with the same buckets are combined with
+ * {@link #merge(FixedHistogram)}. A FixedHistogram is not thread safe; give
+ * every worker its own.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameAnalytics
+ */
+public class FixedHistogram {
+
+    /**
+     * The lowest value of the first bucket.
+     */
+    private final long lowest;
+
+    /**
+     * The number of values every bucket covers.
+     */
+    private final int width;
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final long[] counts;
+
+    /**
+     * The number of values below the first bucket.
+     */
+    private long underflow;
+
+    /**
+     * The number of values above the last bucket.
+     */
+    private long overflow;
+
+    /**
+     * Constructs an empty histogram.
+     *
+     * @param lowest  The lowest value of the first bucket.
+     * @param width   The number of values every bucket covers.
+     * @param buckets The number of buckets.
+     */
+    public FixedHistogram(long lowest, int width, int buckets) {
+        if (width < 1 || buckets < 1) {
+            throw new IllegalArgumentException("A histogram needs at least one bucket of width 1 or more");
+        }
+        this.lowest = lowest;
+        this.width = width;
+        this.counts = new long[buckets];
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value The value.
+     */
+    public void record(long value) {
+        if (value < lowest) {
+            underflow++;
+            return;
+        }
+        long bucket = (value - lowest) / width;
+        if (bucket >= counts.length) {
+            overflow++;
+        } else {
+            counts[(int) bucket]++;
+        }
+    }
+
+    /**
+     * Adds the counts of another histogram with the same buckets to this one.
+     *
+     * @param other The histogram to add.
+     * @return This histogram, for chaining.
+     * @throws IllegalArgumentException if the histograms have different
+     *                                  buckets.
+     */
+    public FixedHistogram merge(FixedHistogram other) {
+        if (other.lowest != lowest || other.width != width || other.counts.length != counts.length) {
+            throw new IllegalArgumentException("Cannot merge histograms with different buckets");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        underflow += other.underflow;
+        overflow += other.overflow;
+        return this;
+    }
+
+    /**
+     * Gets the number of buckets.
+     *
+     * @return The number of buckets.
+     */
+    public int getBuckets() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the lowest value that falls in a bucket.
+     *
+     * @param bucket The bucket, starting at 0.
+     * @return The bucket's lowest value.
+     */
+    public long getBucketLowest(int bucket) {
+        return lowest + (long) bucket * width;
+    }
+
+    /**
+     * Gets the number of values recorded in a bucket.
+     *
+     * @param bucket The bucket, starting at 0.
+     * @return The bucket's count.
+     */
+    public long getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Gets the number of values recorded, including underflow and overflow.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        long total = underflow + overflow;
+        for (long count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of values below the first bucket.
+     *
+     * @return The underflow count.
+     */
+    public long getUnderflow() {
+        return underflow;
+    }
+
+    /**
+     * Gets the number of values above the last bucket.
+     *
+     * @return The overflow count.
+     */
+    public long getOverflow() {
+        return overflow;
+    }
+
+    /**
+     * Appends every bucket as a CSV row of metric, the bucket's lowest value
+     * and its count, followed by the underflow and overflow.
+     *
+     * @param out    Where to append the rows.
+     * @param metric The name of the metric.
+     * @throws IOException if the rows cannot be appended.
+     */
+    void appendCsv(Appendable out, String metric) throws IOException {
+        for (int i = 0; i < counts.length; i++) {
+            GameAnalytics.csvRow(out, metric, Long.toString(getBucketLowest(i)), counts[i]);
+        }
+        GameAnalytics.csvRow(out, metric, "underflow", underflow);
+        GameAnalytics.csvRow(out, metric, "overflow", overflow);
+    }
+
+    /**
+     * Appends the histogram as a JSON object.
+     *
+     * @param out Where to append the object.
+     * @throws IOException if the object cannot be appended.
+     */
+    void appendJson(Appendable out) throws IOException {
+        out.append("{\"lowest\":").append(Long.toString(lowest))
+                .append(",\"width\":").append(Integer.toString(width))
+                .append(",\"counts\":[");
+        for (int i = 0; i < counts.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append(Long.toString(counts[i]));
+        }
+        out.append("],\"underflow\":").append(Long.toString(underflow))
+                .append(",\"overflow\":").append(Long.toString(overflow)).append('}');
+    }
+}
@@ -1,6 +1,9 @@
 package edu.guilford;
 
+import java.nio.ByteBuffer;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents a game of Thirty-One.
@@ -8,55 +11,302 @@ import java.util.*;
  * 
  * @author Miguel A. Nunez Palomares
  * @version 1.0
- * @see java.util.List, java.util.ArrayList, java.util.Stack, java.util.Queue,
- *      java.util.Random
+ * @see java.util.List, java.util.ArrayList, CardStack, CardRing,
+ *      java.util.random.RandomGenerator
  */
 
 public class Game {
 
+    /**
+     * How a round that reaches the turn limit is ended.
+     */
+    public enum TurnLimitResolution {
+        /**
+         * Every hand is shown and the lowest hands lose a life, as after a
+         * knock, but nobody risks the knocker's double loss.
+         */
+        SHOWDOWN,
+
+        /**
+         * The round does not count: nobody loses a life and the cards are
+         * dealt again.
+         */
+        REDEAL
+    }
+
+    /**
+     * The decisions a player makes in a turn, in the order they are made.
+     */
+    public enum Decision {
+        /**
+         * Whether to take the top discard or draw from the stock pile.
+         */
+        DRAW,
+
+        /**
+         * Which card to discard.
+         */
+        DISCARD,
+
+        /**
+         * Whether to knock, once every player has had a turn this round and
+         * only with a hand worth at least KNOCK_MINIMUM.
+         */
+        KNOCK
+    }
+
+    /**
+     * The names of the first seats, shared by every game instead of being
+     * built again for each one.
+     */
+    private static final String[] PLAYER_NAMES = new String[32];
+
+    static {
+        for (int i = 0; i < PLAYER_NAMES.length; i++) {
+            PLAYER_NAMES[i] = "Player " + (i + 1);
+        }
+    }
+
+    /**
+     * The number of turns after which a round is ended unless set otherwise.
+     * Ordinary rounds last fewer than 50 turns.
+     */
+    public static final int DEFAULT_TURN_LIMIT = 500;
+
+    /**
+     * The lowest hand value a player may knock with.
+     */
+    public static final int KNOCK_MINIMUM = 25;
+
+    /**
+     * The most players one deck can deal a hand to, leaving a card for the
+     * discard pile. Larger tables are dealt from a shoe of several decks.
+     */
+    public static final int MAX_PLAYERS = (CardMask.DECK_SIZE - 1) / 3;
+
     /**
      * List of players in the game.
      */
     private List<Player> players;
 
+    /**
+     * Read-only view of the players handed out to listeners and callers.
+     */
+    private List<Player> playersView;
+
+    /**
+     * The players with lives remaining, in seating order, in the first
+     * {@code alive} positions. Turns go around this array, so eliminated
+     * players cost nothing.
+     */
+    private Player[] rotation;
+
+    /**
+     * The number of players with lives remaining.
+     */
+    private int alive;
+
+    /**
+     * Whether a player has been eliminated since the rotation was last
+     * compacted.
+     */
+    private boolean eliminated;
+
+    /**
+     * Whether a round is being played. No round is dealt until the first
+     * turn begins.
+     */
+    private boolean inRound;
+
+    /**
+     * The number of turns played in the current round.
+     */
+    private int turnsPlayed;
+
+    /**
+     * The position in the rotation of the player whose turn is next.
+     */
+    private int turnSeat;
+
+    /**
+     * Whether the game is over.
+     */
+    private boolean over;
+
+    /**
+     * The decision the current turn is waiting for, or null between turns.
+     */
+    private Decision pending;
+
     /**
      * The deck of cards used in the game.
      */
     private Deck deck;
 
     /**
-     * The discard pile of cards.
+     * The discard pile of cards, as card indices.
      */
-    private Stack<Card> discardPile;
+    private CardStack discardPile;
 
     /**
-     * The stock pile of cards.
+     * The stock pile of cards, as card indices.
      */
-    private Queue<Card> stockPile;
+    private CardRing stockPile;
 
     /**
      * Random number generator for game operations.
      */
-    private Random rand;
+    private RandomGenerator rand;
 
     /**
-     * Constructs a Game with the specified number of players.
+     * The seed the game's random number generator was created from.
+     */
+    private long seed;
+
+    /**
+     * Whether the game was created from a seed, so that it can be replayed.
+     */
+    private boolean seeded;
+
+    /**
+     * Receives everything that happens in the game. The game itself never
+     * prints; narration is left to the listener.
+     */
+    private GameListener listener;
+
+    /**
+     * The last player with lives remaining once the game is over, or null
+     * while the game is still being played.
+     */
+    private Player winner;
+
+    /**
+     * The number of turns after which a round is ended.
+     */
+    private int turnLimit = DEFAULT_TURN_LIMIT;
+
+    /**
+     * How a round that reaches the turn limit is ended.
+     */
+    private TurnLimitResolution turnLimitResolution = TurnLimitResolution.SHOWDOWN;
+
+    /**
+     * Constructs a Game with the specified number of players that narrates
+     * every action to the console.
      *
      * @param numPlayers The number of players in the game.
      */
     public Game(int numPlayers) {
-        players = new ArrayList<>(); // Creates a list to store the players in the game.
-        deck = new Deck(); // Creates a new deck of cards
-        discardPile = new Stack<>(); // Creates a stack to store the discard pile
-        stockPile = new LinkedList<>(); // Creates a queue to store the stock pile
-        rand = new Random(); // Creates a new random number generator
+        this(numPlayers, new ConsoleGameListener());
+    }
 
-        for (int i = 0; i < numPlayers; i++) { // This loop creates a number of Player objects equal to numPlayers.
-            players.add(new Player("Player " + (i + 1))); // Each player is given a name like "Player 1", "Player 2",
-                                                          // etc.
+    /**
+     * Constructs a Game with the specified number of players that reports its
+     * actions to the given listener. Use {@link GameListener#NONE} to play a
+     * game without any output. The game is given a random seed, which can be
+     * read with getSeed() to replay it.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param listener   The listener that receives the game's events.
+     */
+    public Game(int numPlayers, GameListener listener) {
+        this(numPlayers, listener, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Constructs a Game with the specified number of players that reports its
+     * actions to the given listener and takes all of its random decisions from
+     * a XoroshiroRandom created from the given seed. Two games with the same
+     * seed and number of players play out identically.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param listener   The listener that receives the game's events.
+     * @param seed       The seed for the game's random number generator.
+     */
+    public Game(int numPlayers, GameListener listener, long seed) {
+        this(numPlayers, listener, new XoroshiroRandom(seed), seed, true);
+    }
+
+    /**
+     * Constructs a Game with the specified number of players that reports its
+     * actions to the given listener and takes all of its random decisions,
+     * including shuffling, from the given generator. Two games given generators
+     * in the same state play out identically.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param listener   The listener that receives the game's events.
+     * @param rand       The random number generator for the game and its deck.
+     */
+    public Game(int numPlayers, GameListener listener, RandomGenerator rand) {
+        this(numPlayers, decksFor(numPlayers), listener, rand, 0L, false);
+    }
 
+    /**
+     * Constructs a Game with the specified number of players dealt from a shoe
+     * of the given number of decks, that reports its actions to the given
+     * listener and takes all of its random decisions from the given generator.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param decks      The number of standard decks in the shoe.
+     * @param listener   The listener that receives the game's events.
+     * @param rand       The random number generator for the game and its deck.
+     * @throws IllegalArgumentException if the shoe cannot deal to every player.
+     */
+    public Game(int numPlayers, int decks, GameListener listener, RandomGenerator rand) {
+        this(numPlayers, decks, listener, rand, 0L, false);
+    }
+
+    /**
+     * Constructs a Game with the specified number of players and shoe size
+     * that reports its actions to the given listener.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param listener   The listener that receives the game's events.
+     * @param rand       The random number generator for the game and its deck.
+     * @param seed       The seed rand was created from, if known.
+     * @param seeded     Whether the seed is known.
+     */
+    private Game(int numPlayers, GameListener listener, RandomGenerator rand, long seed, boolean seeded) {
+        this(numPlayers, decksFor(numPlayers), listener, rand, seed, seeded);
+    }
+
+    /**
+     * Constructs a Game. The first round is dealt when its first turn
+     * begins, like every other round, so listeners see it dealt once.
+     *
+     * @param numPlayers The number of players in the game.
+     * @param decks      The number of standard decks in the shoe.
+     * @param listener   The listener that receives the game's events.
+     * @param rand       The random number generator for the game and its deck.
+     * @param seed       The seed rand was created from, if known.
+     * @param seeded     Whether the seed is known.
+     */
+    private Game(int numPlayers, int decks, GameListener listener, RandomGenerator rand, long seed,
+            boolean seeded) {
+        if (decks < decksFor(numPlayers)) {
+            throw new IllegalArgumentException(decks + " decks can only deal to "
+                    + (decks * CardMask.DECK_SIZE - 1) / 3 + " players");
+        }
+        this.listener = listener;
+        this.rand = rand;
+        this.seed = seed;
+        this.seeded = seeded;
+        players = new ArrayList<>(numPlayers); // Creates a list to store the players in the game.
+        playersView = Collections.unmodifiableList(players);
+        rotation = new Player[numPlayers];
+        deck = new Deck(rand, decks); // Creates a new shoe of cards that shuffles with the game's generator
+        discardPile = new CardStack(decks * CardMask.DECK_SIZE); // Creates a stack to store the discard pile
+        stockPile = new CardRing(decks * CardMask.DECK_SIZE); // Creates a queue to store the stock pile
+
+        for (int i = 0; i < numPlayers; i++) { // This loop creates a number of Player objects equal to numPlayers.
+            Player player = new Player(playerName(i)); // Each player is given a name like "Player 1",
+                                                       // "Player 2", etc.
+            player.setSeat(i);
+            players.add(player);
+            rotation[i] = player;
         }
-        startNewRound(); // Starts a new round of the game.
+        alive = numPlayers;
+        listener.gameStarted(this);
     }
 
     /**
@@ -68,7 +318,8 @@ public class Game {
         stockPile.clear(); // Clears the stock pile.
         discardPile.clear(); // Clears the discard pile.
 
-        for (Player player : players) { // This loop deals 3 cards to each player.
+        for (int p = 0; p < alive; p++) { // This loop deals 3 cards to each player still in the game.
+            Player player = rotation[p];
             player.getHand().reset(); // Resets the player's hand.
             for (int i = 0; i < 3; i++) {
                 player.getHand().addCard(deck.deal());
@@ -76,288 +327,691 @@ public class Game {
         }
 
         while (deck.size() > 0) { // This loop deals the remaining cards in the deck to the stock pile.
-            stockPile.offer(deck.deal());
+            stockPile.offer(deck.deal().index());
         }
 
         discardPile.push(stockPile.poll()); // The top card of the stock pile is moved to the discard pile.
+        listener.handsDealt(playersView, toCard(discardPile.peek()));
     }
 
     /**
-     * players.stream()
-     * 
-     * This creates a stream from the players list.
-     * A stream is a way to process data in a functional style.
-     * .filter(p -> p.getLives() > 0)
-     * 
-     * This filters the stream to include only players who have more than 0 lives.
-     * Each p represents a Player object in the list.
-     * p.getLives() > 0 checks if the player is still alive.
-     * .count()
-     * 
-     * This counts how many players still have lives remaining.
-     * > 1
-     * 
-     * The game should continue as long as there is more than one player still
-     * alive.
-     * Once only one player is left, the game stops.
+     * Plays the game until only one player has lives remaining.
+     * Turns go around the players still in the game; players are taken out of
+     * the rotation once a round in which they lost their last life is over.
      */
+    public void play() {
+        while (step()) { // This loop continues until only one player has lives remaining.
+        }
+    }
 
     /**
-     * Plays the game until only one player has lives remaining.
+     * Plays one turn, dealing a new round first if the last one is over. Any
+     * decision of the turn not yet made with decideDraw(), decideDiscard() or
+     * decideKnock() is left to the player's strategy. A game can be played a
+     * turn at a time with step() and finished with play(), and can be
+     * snapshotted between any two turns.
+     *
+     * @return true if the game is still going, false once it is over.
      */
-    public void play() {
-        while (players.stream().filter(p -> p.getLives() > 0).count() > 1) { // This loop continues until only one
-                                                                             // player has lives remaining.
-            System.out.println("Starting a new round...");
+    public boolean step() {
+        if (pending == null && !beginTurn()) {
+            return false;
+        }
+        Player player = rotation[turnSeat];
+        Strategy strategy = player.getStrategy();
+        if (pending == Decision.DRAW) {
+            // The player's strategy decides whether to take the top card of the discard pile.
+            decideDraw(strategy.shouldTakeDiscard(player.getHand(), toCard(discardPile.peek())));
+        }
+        if (pending == Decision.DISCARD) {
+            decideDiscard(strategy.chooseDiscard(player.getHand()));
+        }
+        if (pending == Decision.KNOCK) {
+            decideKnock(strategy.shouldKnock(player.getHand()));
+        }
+        return !over;
+    }
+
+    /**
+     * Starts the next turn, dealing a new round first if the last one is
+     * over, and waits for the player's draw decision. Used with
+     * decideDraw(), decideDiscard() and decideKnock() to play turns whose
+     * decisions come from outside the game, such as a person at a
+     * {@link TableHost}.
+     *
+     * @return true if a turn was started, false if the game is over.
+     * @throws IllegalStateException if the current turn is not finished.
+     */
+    public boolean beginTurn() {
+        if (pending != null) {
+            throw new IllegalStateException("The current turn is waiting for a " + pending + " decision");
+        }
+        if (over) {
+            return false;
+        }
+        if (!inRound) {
+            if (alive <= 1) {
+                endGame();
+                return false;
+            }
+            listener.roundStarted();
             startNewRound();
+            inRound = true;
+            turnsPlayed = 0;
+            turnSeat = 0;
+        }
+        ensureDiscardPileNotEmpty(); // Ensures the discard pile is not empty.
+        listener.turnStarted(rotation[turnSeat], toCard(discardPile.peek()));
+        pending = Decision.DRAW;
+        return true;
+    }
+
+    /**
+     * Draws a card for the current player, from the top of the discard pile
+     * or from the stock pile. If the stock pile is empty even after the
+     * discard pile has been recycled into it, the top discard is taken.
+     *
+     * @param takeDiscard true to take the top discard, false to draw from the
+     *                    stock pile.
+     * @throws IllegalStateException if the turn is not waiting for a draw.
+     */
+    public void decideDraw(boolean takeDiscard) {
+        expect(Decision.DRAW);
+        Player player = rotation[turnSeat];
+        if (!takeDiscard && stockPile.isEmpty()) {
+            recycleDiscardPile();
+            takeDiscard = stockPile.isEmpty(); // Only the top discard is left to take
+        }
+        Card drawnCard;
+        if (takeDiscard) {
+            ensureDiscardPileNotEmpty();
+            drawnCard = toCard(discardPile.pop());
+            listener.cardDrawn(player, drawnCard, true);
+        } else {
+            drawnCard = toCard(stockPile.poll()); // If the player should draw from the stock pile.
+            listener.cardDrawn(player, drawnCard, false);
+        }
+        player.getHand().addCard(drawnCard);
+        pending = Decision.DISCARD;
+    }
 
-            boolean roundOver = false;
-            int roundsPlayed = 0;
-
-            while (!roundOver) { // This loop continues until the round is over.
-                for (Player player : players) {
-                    if (player.getLives() <= 0)
-                        continue; // If the player has no lives remaining, skip their turn.
-
-                    System.out.println(player.getName() + "'s turn:");
-                    System.out.println("Current hand: " + player.getHand());
-
-                    ensureDiscardPileNotEmpty(); // Ensures the discard pile is not empty.
-                    Card topDiscard = discardPile.peek(); // looks at the top card of the discard pile.
-                    System.out.println("Top of discard pile: " + topDiscard);
-
-                    Card drawnCard;
-                    if (shouldTakeDiscard(player, topDiscard)) { // If the player should take the top card of the
-                                                                 // discard pile.
-                        ensureDiscardPileNotEmpty();
-                        drawnCard = discardPile.pop();
-                        System.out.println(player.getName() + " picks up " + drawnCard + " from the discard pile.");
-                    } else {
-                        drawnCard = stockPile.poll(); // If the player should draw from the stock pile.
-                        System.out.println(player.getName() + " draws from the stockpile.");
-                    }
-
-                    player.getHand().addCard(drawnCard);
-                    discardCard(player); // Discards a card from the player's hand.
-
-                    // Check for 31 immediately after discarding
-                    if (player.getHand().getTotalValue() == 31) {
-                        System.out.println(player.getName() + " reaches 31! Round ends immediately!");
-                        roundOver = true;
-
-                        // All other players lose a life
-                        for (Player otherPlayer : players) {
-                            if (otherPlayer != player && otherPlayer.getLives() > 0) {
-                                otherPlayer.loseLife();
-                                System.out.println(otherPlayer.getName() + " loses a life because " + player.getName()
-                                        + " reached 31!");
-                            }
-                        }
-
-                        break; // End the turn loop
-                    }
-
-                    roundsPlayed++;
-
-                    // Check if the player should knock
-                    if (roundsPlayed >= players.size() && player.getHand().getTotalValue() >= 25
-                            && shouldKnock(player)) {
-                        System.out.println(player.getName() + " knocks!");
-                        roundOver = true;
-                        resolveRound(player);
-                        break;
-                    }
+    /**
+     * Discards a card from the current player's hand, with a random choice
+     * between the discard pile and stockpile, and ends the round at once if
+     * the player is left with 31. Otherwise the turn waits for a knock
+     * decision once every player has had a turn this round if the hand is
+     * worth at least KNOCK_MINIMUM, and ends if not.
+     *
+     * @param card The card to discard.
+     * @throws IllegalStateException    if the turn is not waiting for a
+     *                                  discard.
+     * @throws IllegalArgumentException if the card is not in the hand.
+     */
+    public void decideDiscard(Card card) {
+        expect(Decision.DISCARD);
+        Player player = rotation[turnSeat];
+        if (card == null || !player.getHand().getHand().contains(card)) {
+            throw new IllegalArgumentException(card + " is not in " + player.getName() + "'s hand");
+        }
+        discardCard(player, card); // Discards a card from the player's hand.
+
+        // Check for 31 immediately after discarding
+        if (player.getHand().getTotalValue() == 31) {
+            listener.thirtyOne(player);
+            inRound = false;
+
+            // All other players lose a life
+            for (int other = 0; other < alive; other++) {
+                if (rotation[other] != player) {
+                    loseLives(rotation[other], 1);
                 }
             }
+
+            listener.roundEnded(playersView, player, true);
+            endTurn();
+            return;
         }
 
-        /**
-         * players.stream()
-         * 
-         * Creates a stream from the list of players.
-         * A stream allows us to process data using functional operations.
-         * .filter(p -> p.getLives() > 0)
-         * 
-         * Filters the stream to only include players who still have lives.
-         * p -> p.getLives() > 0 checks if a player is still alive.
-         * .findFirst()
-         * 
-         * Returns the first player from the filtered list.
-         * Since only one player should be left when this runs, this will be the winner.
-         * .orElse(null)
-         * 
-         * If no player is found (which shouldn't happen in a correctly functioning
-         * game), it returns null.
-         */
+        turnsPlayed++;
 
-        Player winner = players.stream().filter(p -> p.getLives() > 0).findFirst().orElse(null);
-        if (winner != null) {
-            System.out.println(winner.getName() + " is the winner!");
+        // Knocking is allowed once every player has had a turn, with a good enough hand
+        if (turnsPlayed >= alive && player.getHand().getTotalValue() >= KNOCK_MINIMUM) {
+            pending = Decision.KNOCK;
+        } else {
+            checkTurnLimit();
+            endTurn();
         }
     }
 
     /**
-     * Determines if the player should take the top card of the discard pile.
+     * Knocks for the current player, or lets the turn pass.
      *
-     * @param player     The player making the decision.
-     * @param topDiscard The top card of the discard pile.
-     * @return true if the player should take the top card; false otherwise.
+     * @param knock true to knock.
+     * @throws IllegalStateException if the turn is not waiting for a knock
+     *                               decision.
      */
-    private boolean shouldTakeDiscard(Player player, Card topDiscard) { // Determines if the player should take the top
-                                                                        // card of the discard pile.
-        Hand hand = player.getHand();
-        Card.Suit preferredSuit = getPreferredSuit(hand);
-
-        if (topDiscard.getSuit() == preferredSuit) { // If the top card of the discard pile is the preferred suit.
-                                                     // The player should take the card.
-            return true;
+    public void decideKnock(boolean knock) {
+        expect(Decision.KNOCK);
+        Player player = rotation[turnSeat];
+        if (knock) {
+            listener.knocked(player);
+            inRound = false;
+            resolveRound(player);
+        } else {
+            checkTurnLimit();
         }
-        return false;
+        endTurn();
     }
 
     /**
-     * Discards a card from the player's hand, with a random choice between the
-     * discard pile and stockpile.
+     * Gets the decision the current turn is waiting for.
      *
-     * @param player The player discarding a card.
+     * @return The decision, or null between turns.
      */
-    private void discardCard(Player player) { // Discards a card from the player's hand.
-        Hand hand = player.getHand();
-        Card.Suit preferredSuit = getPreferredSuit(hand); // Gets the preferred suit for the player.
-        Card cardToDiscard = null;
+    public Decision getPendingDecision() {
+        return pending;
+    }
 
-        for (Card card : hand.getHand()) { // This loop goes through the player's hand to find a card to discard.
-            if (card.getSuit() != preferredSuit) { // If the card is not the preferred suit. it is selected to be
-                                                   // discarded.
-                cardToDiscard = card;
-                break;
-            }
+    /**
+     * Gets the player whose turn it is, or whose turn is next between turns.
+     *
+     * @return The current player, or null once the game is over.
+     */
+    public Player getCurrentPlayer() {
+        return over || alive == 0 ? null : rotation[inRound ? turnSeat : 0];
+    }
+
+    /**
+     * Checks if the game is over.
+     *
+     * @return true once only one player, or none, has lives remaining.
+     */
+    public boolean isOver() {
+        return over;
+    }
+
+    /**
+     * Checks that the turn is waiting for a decision.
+     *
+     * @param decision The decision being made.
+     * @throws IllegalStateException if the turn is waiting for another
+     *                               decision or none.
+     */
+    private void expect(Decision decision) {
+        if (pending != decision) {
+            throw new IllegalStateException(pending == null ? "No turn has been started"
+                    : "The current turn is waiting for a " + pending + " decision, not " + decision);
         }
+    }
 
-        // If all cards are of the preferred suit, discard the card with the lowest
-        // value
-        if (cardToDiscard == null) {
-            cardToDiscard = hand.getHand().get(0);
-            for (Card card : hand.getHand()) {
-                if (card.getValue() < cardToDiscard.getValue()) {
-                    cardToDiscard = card;
-                }
+    /**
+     * Ends the round if it has reached the turn limit, in the way set by
+     * setTurnLimit().
+     */
+    private void checkTurnLimit() {
+        // Stop rounds in which nobody can or will end the round
+        if (turnsPlayed >= turnLimit) {
+            listener.turnLimitReached(turnsPlayed);
+            inRound = false;
+            if (turnLimitResolution == TurnLimitResolution.SHOWDOWN) {
+                resolveRound(null);
+            } else {
+                listener.roundEnded(playersView, null, false);
             }
         }
+    }
 
-        hand.removeCard(cardToDiscard);
-
-        // Randomly choose where to discard the card (50/50 chance)
-        if (rand.nextBoolean()) { // true 50% of the time
-            discardPile.push(cardToDiscard);
-            System.out.println(player.getName() + " discards " + cardToDiscard + " to the discard pile.");
+    /**
+     * Finishes the current turn: moves on to the next player, or, if the
+     * round is over, takes eliminated players out of the rotation and ends
+     * the game if only one is left.
+     */
+    private void endTurn() {
+        pending = null;
+        if (inRound) {
+            turnSeat++;
+            if (turnSeat == alive) { // Every player has had a turn; go around again
+                turnSeat = 0;
+            }
         } else {
-            stockPile.offer(cardToDiscard);
-            System.out.println(player.getName() + " discards " + cardToDiscard + " to the stockpile.");
+            removeEliminated();
+            if (alive <= 1) {
+                endGame();
+            }
         }
     }
 
     /**
-     * Creates a HashMap (suitCount) to store the number of times each suit appears
-     * in the hand.
-     * The key is a Card.Suit (like HEARTS, CLUBS), and the value is the count of
-     * that suit.
-     * Loops through each card in the player's hand.
-     * card.getSuit() gets the suit of the card.
-     * suitCount.getOrDefault(card.getSuit(), 0) + 1:
-     * If the suit is already in the map, increase its count.
-     * If the suit isn't in the map, set its count to 1.
-     * suitCount.entrySet().stream() → Converts the HashMap into a stream of entries
-     * ((suit, count) pairs).
-     * .max(Map.Entry.comparingByValue()) → Finds the entry with the highest count.
-     * .get() → Retrieves the winning (suit, count) pair.
-     * .getKey() → Extracts and returns the suit.
+     * Ends the game, naming the last player with lives remaining as the
+     * winner.
      */
+    private void endGame() {
+        over = true;
+        winner = alive == 1 ? rotation[0] : null;
+        listener.gameEnded(winner);
+    }
 
     /**
-     * Gets the preferred suit for the player based on the suits in their hand.
-     * 
-     * @param hand
-     * @return The preferred suit for the player.
+     * Gets the players in the game, in seating order.
+     *
+     * @return An unmodifiable list of the players, including eliminated ones.
      */
-    private Card.Suit getPreferredSuit(Hand hand) {
-        Map<Card.Suit, Integer> suitCount = new HashMap<>();
-        for (Card card : hand.getHand()) {
-            suitCount.put(card.getSuit(), suitCount.getOrDefault(card.getSuit(), 0) + 1);
-        }
-        return suitCount.entrySet().stream().max(Map.Entry.comparingByValue()).get().getKey();
+    public List<Player> getPlayers() {
+        return playersView;
     }
 
     /**
-     * Determines if the player should knock based on their hand value.
-     * 
-     * @param player
-     * @return true if the player should knock; false otherwise.
+     * Gets the number of players with lives remaining.
+     *
+     * @return The number of players still in the game.
      */
+    public int getAliveCount() {
+        return alive;
+    }
 
-    private boolean shouldKnock(Player player) {
-        return player.getHand().getTotalValue() >= 25; // The player should knock if their hand value is 25 or more.
+    /**
+     * Gets the number of standard decks the game deals from.
+     *
+     * @return The number of decks in the shoe.
+     */
+    public int getDecks() {
+        return deck.getDecks();
     }
 
     /**
-     * Resolves the round after a player knocks.
-     * 
-     * @param knocker The player who knocked.
+     * Gets the smallest shoe that can deal a hand to every player and still
+     * turn a card onto the discard pile.
+     *
+     * @param numPlayers The number of players.
+     * @return The number of standard decks needed, at least 1.
      */
-    private void resolveRound(Player knocker) { // Resolves the round after a player knocks.
-        // int knockerScore = knocker.getHand().getTotalValue();
-        // System.out.println(knocker.getName() + " has a score of " + knockerScore);
+    public static int decksFor(int numPlayers) {
+        return Math.max(1, (numPlayers * 3 + CardMask.DECK_SIZE) / CardMask.DECK_SIZE);
+    }
 
-        // map, which holds players and their hand values
-        // Collect scores for all players still in the game
-        Map<Player, Integer> playerScores = new HashMap<>();
-        for (Player player : players) {
-            if (player.getLives() <= 0)
-                continue;
+    /**
+     * Gets the card on top of the discard pile.
+     *
+     * @return The top card of the discard pile, or null if it is empty.
+     */
+    public Card getTopDiscard() {
+        return toCard(discardPile.peek());
+    }
 
-            int playerScore = player.getHand().getTotalValue();
-            playerScores.put(player, playerScore);
-            System.out.println(player.getName() + " has a score of " + playerScore);
+    /**
+     * Gets the cards in the stock pile, in no particular order. With a shoe
+     * of several decks, a card is in the set if at least one copy of it is
+     * in the stock pile.
+     *
+     * @return The stock pile's cards, as a card mask.
+     */
+    public long getStockMask() {
+        long stock = 0L;
+        for (int i = 0; i < stockPile.size(); i++) {
+            stock |= CardMask.bit(stockPile.get(i));
         }
+        return stock;
+    }
 
-        /**
-         * playerScores.values() Get all scores.
-         * .stream() Turn it into a stream for processing. allows us to perform
-         * operations on the scores.
-         * .min(Integer::compareTo) Find the minimum score.
-         * .orElse(Integer.MAX_VALUE) Return the minimum, or a large fallback value if
-         * empty.
-         */
+    /**
+     * Gets the next cards the stock pile will deal, in no particular order.
+     *
+     * @param cards The most cards to include.
+     * @return The first cards of the stock pile, as a card mask.
+     */
+    long getStockMask(int cards) {
+        long stock = 0L;
+        for (int i = 0; i < Math.min(cards, stockPile.size()); i++) {
+            stock |= CardMask.bit(stockPile.get(i));
+        }
+        return stock;
+    }
+
+    /**
+     * Gets the number of turns finished in the current round.
+     *
+     * @return The number of turns.
+     */
+    int getTurnsPlayed() {
+        return turnsPlayed;
+    }
+
+    /**
+     * Checks if the game was created from a known seed and can be replayed.
+     *
+     * @return true if getSeed() returns the game's seed.
+     */
+    public boolean hasSeed() {
+        return seeded;
+    }
+
+    /**
+     * Gets the seed the game's random number generator was created from.
+     * Creating a new Game with this seed and the same number of players plays
+     * the same game again.
+     *
+     * @return The game's seed.
+     * @throws IllegalStateException if the game was given a generator instead
+     *                               of a seed.
+     */
+    public long getSeed() {
+        if (!seeded) {
+            throw new IllegalStateException("Game was created from a random generator, not a seed");
+        }
+        return seed;
+    }
 
-        // Find the lowest score(s)
-        int lowestScore = playerScores.values().stream().min(Integer::compareTo).orElse(Integer.MAX_VALUE);
-        List<Player> lowestPlayers = new ArrayList<>();
-        for (Map.Entry<Player, Integer> entry : playerScores.entrySet()) {
-            if (entry.getValue() == lowestScore) {
-                lowestPlayers.add(entry.getKey());
+    /**
+     * Gets the winner of the game.
+     *
+     * @return The last player with lives remaining, or null if the game has not
+     *         been played yet.
+     */
+    public Player getWinner() {
+        return winner;
+    }
+
+    /**
+     * Discards a card, with a random choice between the discard pile and
+     * stockpile.
+     *
+     * @param player        The player discarding a card.
+     * @param cardToDiscard The card to discard.
+     */
+    private void discardCard(Player player, Card cardToDiscard) { // Discards a card from the player's hand.
+        player.getHand().removeCard(cardToDiscard);
+
+        // Randomly choose where to discard the card (50/50 chance)
+        if (rand.nextBoolean()) { // true 50% of the time
+            discardPile.push(cardToDiscard.index());
+            listener.cardDiscarded(player, cardToDiscard, false);
+        } else {
+            stockPile.offer(cardToDiscard.index());
+            listener.cardDiscarded(player, cardToDiscard, true);
+        }
+    }
+
+    /**
+     * Resolves the round after a player knocks, or in a showdown at the turn
+     * limit.
+     * 
+     * @param knocker The player who knocked, or null for a showdown.
+     */
+    private void resolveRound(Player knocker) { // Resolves the round after a player knocks.
+        // Reveal every hand still in the game and find the lowest score
+        int lowestScore = Integer.MAX_VALUE;
+        int lowestCount = 0;
+        for (int seat = 0; seat < alive; seat++) {
+            Player player = rotation[seat];
+            int playerScore = player.getHand().getTotalValue();
+            listener.scoreRevealed(player, playerScore);
+            if (playerScore < lowestScore) {
+                lowestScore = playerScore;
+                lowestCount = 1;
+            } else if (playerScore == lowestScore) {
+                lowestCount++;
             }
         }
 
         // Apply life loss rules
-        if (lowestPlayers.contains(knocker) && lowestPlayers.size() == 1) {
+        if (knocker != null && lowestCount == 1 && knocker.getHand().getTotalValue() == lowestScore) {
             // Knocker is the lowest and alone -> loses 2 lives
-            knocker.loseLife();
-            knocker.loseLife();
-            System.out.println(knocker.getName() + " has the lowest hand and loses 2 lives!");
+            loseLives(knocker, 2);
         } else {
             // All players with the lowest hand lose 1 life
-            for (Player player : lowestPlayers) {
-                player.loseLife();
-                System.out.println(player.getName() + " has the lowest hand and loses 1 life!");
+            for (int seat = 0; seat < alive; seat++) {
+                if (rotation[seat].getHand().getTotalValue() == lowestScore) {
+                    loseLives(rotation[seat], 1);
+                }
+            }
+        }
+
+        listener.roundEnded(playersView, knocker, false);
+    }
+
+    /**
+     * Takes lives from a player and reports it.
+     *
+     * @param player The player losing lives.
+     * @param lives  The number of lives lost.
+     */
+    private void loseLives(Player player, int lives) {
+        for (int i = 0; i < lives; i++) {
+            player.loseLife();
+        }
+        listener.livesLost(player, lives);
+        if (player.getLives() <= 0) {
+            eliminated = true;
+        }
+    }
+
+    /**
+     * Takes the players who have lost their last life out of the rotation,
+     * keeping the others in seating order, and clears their hands.
+     */
+    private void removeEliminated() {
+        if (!eliminated) {
+            return;
+        }
+        int kept = 0;
+        for (int seat = 0; seat < alive; seat++) {
+            Player player = rotation[seat];
+            if (player.getLives() > 0) {
+                rotation[kept++] = player;
+            } else {
+                player.getHand().reset();
             }
         }
+        for (int seat = kept; seat < alive; seat++) {
+            rotation[seat] = null;
+        }
+        alive = kept;
+        eliminated = false;
+    }
 
-        System.out.println("End of round. Player lives:");
+    /**
+     * Sets how long a round may last and how it ends when it reaches that
+     * length. Without a limit, a round in which every player holds a hand
+     * below the knocking threshold that no card can improve never ends.
+     *
+     * @param turnLimit  The number of turns after which a round is ended.
+     * @param resolution How the round is ended.
+     */
+    public void setTurnLimit(int turnLimit, TurnLimitResolution resolution) {
+        if (turnLimit < 1) {
+            throw new IllegalArgumentException("The turn limit must be at least 1");
+        }
+        this.turnLimit = turnLimit;
+        this.turnLimitResolution = resolution;
+    }
+
+    /**
+     * Gets the number of turns after which a round is ended.
+     *
+     * @return The turn limit.
+     */
+    public int getTurnLimit() {
+        return turnLimit;
+    }
+
+    /**
+     * Gets how a round that reaches the turn limit is ended.
+     *
+     * @return The turn limit resolution.
+     */
+    public TurnLimitResolution getTurnLimitResolution() {
+        return turnLimitResolution;
+    }
+
+    /**
+     * Takes a snapshot of the game in a new snapshot sized for it.
+     *
+     * @return The snapshot.
+     * @see #snapshot(GameSnapshot)
+     */
+    public GameSnapshot snapshot() {
+        GameSnapshot snapshot = new GameSnapshot(players.size(), deck.getDecks());
+        snapshot(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Writes the whole state of the game into a snapshot, replacing what it
+     * held, without allocating. Snapshots are taken between turns, or while
+     * a turn waits for a decision: not from inside a listener or a strategy.
+     *
+     * @param snapshot The snapshot to fill.
+     * @throws IllegalArgumentException if the snapshot is for a different
+     *                                  number of players or decks.
+     */
+    public void snapshot(GameSnapshot snapshot) {
+        checkSnapshot(snapshot);
+        ByteBuffer out = snapshot.buffer();
+        out.putInt(GameSnapshot.MAGIC);
+        out.putInt(players.size());
+        out.putInt(deck.getDecks());
+        XoroshiroRandom xoroshiro = rand instanceof XoroshiroRandom ? (XoroshiroRandom) rand : null;
+        out.put((byte) ((seeded ? GameSnapshot.SEEDED : 0) | (inRound ? GameSnapshot.IN_ROUND : 0)
+                | (eliminated ? GameSnapshot.ELIMINATED : 0) | (over ? GameSnapshot.OVER : 0)
+                | (xoroshiro != null ? GameSnapshot.RANDOM_STATE : 0)
+                | (pending == null ? 0 : pending.ordinal() + 1) << GameSnapshot.DECISION_SHIFT));
+        out.putLong(seed);
+        out.putLong(xoroshiro != null ? xoroshiro.getState0() : 0L);
+        out.putLong(xoroshiro != null ? xoroshiro.getState1() : 0L);
+        out.putInt(turnLimit);
+        out.put((byte) turnLimitResolution.ordinal());
+        out.putInt(alive);
+        out.putInt(turnsPlayed);
+        out.putInt(turnSeat);
+        out.putInt(winner == null ? -1 : winner.getSeat());
         for (Player player : players) {
-            System.out.println(player.getName() + ": " + player.getLives() + " lives remaining.");
+            Hand hand = player.getHand();
+            out.put((byte) player.getLives());
+            out.put((byte) hand.size());
+            for (int i = 0; i < GameSnapshot.HAND_CARDS; i++) {
+                out.put((byte) (i < hand.size() ? hand.getCard(i).index() : GameSnapshot.NO_CARD));
+            }
+        }
+        for (int seat = 0; seat < rotation.length; seat++) {
+            out.putInt(seat < alive ? rotation[seat].getSeat() : -1);
+        }
+        out.putInt(discardPile.size());
+        for (int i = 0; i < discardPile.capacity(); i++) {
+            out.put((byte) (i < discardPile.size() ? discardPile.get(i) : GameSnapshot.NO_CARD));
+        }
+        out.putInt(stockPile.size());
+        for (int i = 0; i < stockPile.capacity(); i++) {
+            out.put((byte) (i < stockPile.size() ? stockPile.get(i) : GameSnapshot.NO_CARD));
+        }
+    }
+
+    /**
+     * Puts the game back in the state held by a snapshot, without
+     * allocating. Play continues from where the snapshot was taken, waiting
+     * for the same decision if a turn was waiting for one.
+     * <p>
+     * The generator is set back too if the snapshot holds its state and the
+     * game plays with a XoroshiroRandom, so the game then plays out exactly
+     * as it did after the snapshot. A game with any other generator keeps
+     * drawing new numbers, which makes every restore a different what-if
+     * continuation of the same position. The players keep their names and
+     * strategies.
+     *
+     * @param snapshot The snapshot to restore.
+     * @throws IllegalArgumentException if the snapshot is empty or is for a
+     *                                  different number of players or decks.
+     */
+    public void restore(GameSnapshot snapshot) {
+        checkSnapshot(snapshot);
+        if (!snapshot.isFilled()) {
+            throw new IllegalArgumentException("Snapshot holds no game");
+        }
+        ByteBuffer in = snapshot.buffer();
+        in.position(3 * Integer.BYTES); // Skip the header checked above
+        int flags = in.get();
+        seeded = (flags & GameSnapshot.SEEDED) != 0;
+        inRound = (flags & GameSnapshot.IN_ROUND) != 0;
+        eliminated = (flags & GameSnapshot.ELIMINATED) != 0;
+        over = (flags & GameSnapshot.OVER) != 0;
+        int decision = flags >>> GameSnapshot.DECISION_SHIFT & 3;
+        pending = decision == 0 ? null : Decision.values()[decision - 1];
+        seed = in.getLong();
+        long s0 = in.getLong();
+        long s1 = in.getLong();
+        if ((flags & GameSnapshot.RANDOM_STATE) != 0 && rand instanceof XoroshiroRandom) {
+            ((XoroshiroRandom) rand).setState(s0, s1);
+        }
+        turnLimit = in.getInt();
+        turnLimitResolution = TurnLimitResolution.values()[in.get()];
+        alive = in.getInt();
+        turnsPlayed = in.getInt();
+        turnSeat = in.getInt();
+        int winnerSeat = in.getInt();
+        winner = winnerSeat < 0 ? null : players.get(winnerSeat);
+        for (Player player : players) {
+            Hand hand = player.getHand();
+            player.setLives(in.get());
+            int size = in.get();
+            hand.reset();
+            for (int i = 0; i < GameSnapshot.HAND_CARDS; i++) {
+                int card = in.get() & 0xFF;
+                if (i < size) {
+                    hand.addCard(Card.ofIndex(card));
+                }
+            }
+        }
+        for (int seat = 0; seat < rotation.length; seat++) {
+            int player = in.getInt();
+            rotation[seat] = player < 0 ? null : players.get(player);
+        }
+        discardPile.clear();
+        int size = in.getInt();
+        for (int i = 0; i < discardPile.capacity(); i++) {
+            int card = in.get() & 0xFF;
+            if (i < size) {
+                discardPile.push(card);
+            }
+        }
+        stockPile.clear();
+        size = in.getInt();
+        for (int i = 0; i < stockPile.capacity(); i++) {
+            int card = in.get() & 0xFF;
+            if (i < size) {
+                stockPile.offer(card);
+            }
         }
     }
 
+    /**
+     * Checks that a snapshot is sized for this game.
+     *
+     * @param snapshot The snapshot.
+     * @throws IllegalArgumentException if it is for a different number of
+     *                                  players or decks.
+     */
+    private void checkSnapshot(GameSnapshot snapshot) {
+        if (snapshot.getNumPlayers() != players.size() || snapshot.getDecks() != deck.getDecks()) {
+            throw new IllegalArgumentException("Snapshot is for " + snapshot.getNumPlayers() + " players and "
+                    + snapshot.getDecks() + " decks, not " + players.size() + " and " + deck.getDecks());
+        }
+    }
+
+    /**
+     * Shuffles the discard pile, all but its top card, into the empty stock
+     * pile. The cards are shuffled where they lie and moved one by one, so
+     * nothing is allocated.
+     */
+    private void recycleDiscardPile() {
+        int top = discardPile.pop();
+        discardPile.shuffle(rand);
+        int recycled = discardPile.size();
+        while (!discardPile.isEmpty()) {
+            stockPile.offer(discardPile.pop());
+        }
+        discardPile.push(top);
+        listener.stockPileRecycled(recycled);
+    }
+
     /**
      * Ensures the discard pile is not empty by moving a card from the stock pile if
      * needed.
@@ -367,10 +1021,29 @@ public class Game {
         if (discardPile.isEmpty()) {
             if (!stockPile.isEmpty()) {
                 discardPile.push(stockPile.poll());
-                System.out.println(
-                        "Discard pile was empty. Moved " + discardPile.peek() + " from stockpile to discard pile.");
+                listener.discardPileRefilled(toCard(discardPile.peek()));
             }
         }
     }
 
+    /**
+     * Gets the name of the player in a seat.
+     *
+     * @param seat The seat, starting at 0.
+     * @return "Player 1" for seat 0, and so on.
+     */
+    private static String playerName(int seat) {
+        return seat < PLAYER_NAMES.length ? PLAYER_NAMES[seat] : "Player " + (seat + 1);
+    }
+
+    /**
+     * Gets the card for a card index taken from one of the piles.
+     *
+     * @param index The card index, or -1 if the pile was empty.
+     * @return The canonical card with that index, or null for -1.
+     */
+    private Card toCard(int index) {
+        return index < 0 ? null : Card.ofIndex(index);
+    }
+
 }
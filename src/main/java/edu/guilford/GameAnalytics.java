@@ -0,0 +1,563 @@
+package edu.guilford;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Streaming statistics over any number of games, answering questions such as
+ * how often each seat wins, how knockers score, and how often a knocker ends
+ * up with the lowest hand and loses 2 lives.
+ * <p>
+ * GameAnalytics is a listener: attach it to games and it aggregates their
+ * events as they happen, in constant memory, with {@link RunningStats},
+ * {@link FixedHistogram}s and {@link QuantileSketch}es. Nothing is kept per
+ * game or per round once it is over, so billions of rounds can be analyzed
+ * without storing them. The listener keeps the state of the round in
+ * progress, so it must only follow one game at a time. Workers playing in
+ * parallel each fill their own and combine them with
+ * {@link #merge(GameAnalytics)}.
+ * <p>
+ * The aggregates are exported with {@link #writeCsv(Appendable)}, as rows of
+ * metric, statistic and value, or with {@link #writeJson(Appendable)}, as
+ * one JSON object. Seats are numbered from 1 in both, as in the players'
+ * names.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Simulator#analyze(long, java.util.random.RandomGenerator)
+ * @see Tournament#analyze(long, long)
+ */
+public class GameAnalytics implements GameListener {
+
+    /**
+     * The highest hand score.
+     */
+    private static final int MAX_SCORE = 31;
+
+    /**
+     * The number of turns every bucket of the turns per round histogram
+     * covers.
+     */
+    private static final int TURN_BUCKET_WIDTH = 10;
+
+    /**
+     * The number of buckets of the turns per round histogram, which covers
+     * rounds shorter than the default turn limit; rounds stopped by the limit
+     * are overflow.
+     */
+    private static final int TURN_BUCKETS = Game.DEFAULT_TURN_LIMIT / TURN_BUCKET_WIDTH;
+
+    /**
+     * The number of games finished.
+     */
+    private long games;
+
+    /**
+     * The number of games won by each seat.
+     */
+    private long[] wins = new long[0];
+
+    /**
+     * The number of games that ended without a winner.
+     */
+    private long noWinner;
+
+    /**
+     * The number of rounds finished.
+     */
+    private long rounds;
+
+    /**
+     * The number of turns started.
+     */
+    private long turns;
+
+    /**
+     * The number of rounds ended by a knock.
+     */
+    private long knockRounds;
+
+    /**
+     * The number of rounds ended by 31.
+     */
+    private long thirtyOneRounds;
+
+    /**
+     * The number of rounds ended by the turn limit.
+     */
+    private long turnLimitRounds;
+
+    /**
+     * The number of knocks after which the knocker, alone with the lowest
+     * hand, lost 2 lives.
+     */
+    private long knockerLostTwo;
+
+    /**
+     * The number of knocks after which the knocker, tied for the lowest hand,
+     * lost 1 life.
+     */
+    private long knockerLostOne;
+
+    /**
+     * The knocker's score in every knocked round.
+     */
+    private RunningStats knockScore = new RunningStats();
+
+    /**
+     * The distribution of the knocker's score.
+     */
+    private FixedHistogram knockScores = new FixedHistogram(0, 1, MAX_SCORE + 1);
+
+    /**
+     * The number of turns in every round.
+     */
+    private RunningStats turnsPerRound = new RunningStats();
+
+    /**
+     * The distribution of the number of turns in every round.
+     */
+    private FixedHistogram turnsPerRoundHistogram = new FixedHistogram(0, TURN_BUCKET_WIDTH, TURN_BUCKETS);
+
+    /**
+     * The quantiles of the number of turns in every round.
+     */
+    private QuantileSketch turnsPerRoundQuantiles = new QuantileSketch();
+
+    /**
+     * The number of rounds in every game.
+     */
+    private RunningStats roundsPerGame = new RunningStats();
+
+    /**
+     * The quantiles of the number of turns in every game.
+     */
+    private QuantileSketch turnsPerGame = new QuantileSketch();
+
+    /**
+     * The player who knocked in the round in progress, or null.
+     */
+    private Player knocker;
+
+    /**
+     * The number of turns started in the round in progress.
+     */
+    private int roundTurns;
+
+    /**
+     * The number of rounds finished in the game in progress.
+     */
+    private int gameRounds;
+
+    /**
+     * The number of turns started in the game in progress.
+     */
+    private long gameTurns;
+
+    @Override
+    public void gameStarted(Game game) {
+        int seats = game.getPlayers().size();
+        if (seats > wins.length) {
+            wins = Arrays.copyOf(wins, seats);
+        }
+        knocker = null;
+        roundTurns = 0;
+        gameRounds = 0;
+        gameTurns = 0;
+    }
+
+    @Override
+    public void turnStarted(Player player, Card topDiscard) {
+        turns++;
+        roundTurns++;
+        gameTurns++;
+    }
+
+    @Override
+    public void knocked(Player player) {
+        knocker = player;
+    }
+
+    @Override
+    public void scoreRevealed(Player player, int score) {
+        if (player == knocker) {
+            knockScore.record(score);
+            knockScores.record(score);
+        }
+    }
+
+    @Override
+    public void livesLost(Player player, int lives) {
+        if (player == knocker) {
+            if (lives >= 2) {
+                knockerLostTwo++;
+            } else {
+                knockerLostOne++;
+            }
+        }
+    }
+
+    @Override
+    public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+        rounds++;
+        if (thirtyOne) {
+            thirtyOneRounds++;
+        } else if (ender != null) {
+            knockRounds++;
+        } else {
+            turnLimitRounds++;
+        }
+        turnsPerRound.record(roundTurns);
+        turnsPerRoundHistogram.record(roundTurns);
+        turnsPerRoundQuantiles.record(roundTurns);
+        gameRounds++;
+        knocker = null;
+        roundTurns = 0;
+    }
+
+    @Override
+    public void gameEnded(Player winner) {
+        games++;
+        if (winner == null) {
+            noWinner++;
+        } else {
+            wins[winner.getSeat()]++;
+        }
+        roundsPerGame.record(gameRounds);
+        turnsPerGame.record(gameTurns);
+    }
+
+    /**
+     * Adds the aggregates of another GameAnalytics to this one. The state of
+     * a game in progress is not merged.
+     *
+     * @param other The aggregates to add.
+     * @return This GameAnalytics, for chaining.
+     */
+    public GameAnalytics merge(GameAnalytics other) {
+        games += other.games;
+        if (other.wins.length > wins.length) {
+            wins = Arrays.copyOf(wins, other.wins.length);
+        }
+        for (int i = 0; i < other.wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        noWinner += other.noWinner;
+        rounds += other.rounds;
+        turns += other.turns;
+        knockRounds += other.knockRounds;
+        thirtyOneRounds += other.thirtyOneRounds;
+        turnLimitRounds += other.turnLimitRounds;
+        knockerLostTwo += other.knockerLostTwo;
+        knockerLostOne += other.knockerLostOne;
+        knockScore.merge(other.knockScore);
+        knockScores.merge(other.knockScores);
+        turnsPerRound.merge(other.turnsPerRound);
+        turnsPerRoundHistogram.merge(other.turnsPerRoundHistogram);
+        turnsPerRoundQuantiles.merge(other.turnsPerRoundQuantiles);
+        roundsPerGame.merge(other.roundsPerGame);
+        turnsPerGame.merge(other.turnsPerGame);
+        return this;
+    }
+
+    /**
+     * Gets the number of games finished.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of seats seen in the largest game.
+     *
+     * @return The number of seats.
+     */
+    public int getSeats() {
+        return wins.length;
+    }
+
+    /**
+     * Gets the number of games won by a seat.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The number of wins for that seat.
+     */
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * Gets the fraction of games won by a seat.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The win rate for that seat, between 0 and 1.
+     */
+    public double getWinRate(int seat) {
+        return games == 0 ? 0.0 : (double) wins[seat] / games;
+    }
+
+    /**
+     * Gets the number of games that ended without a winner.
+     *
+     * @return The number of games nobody won.
+     */
+    public long getGamesWithoutWinner() {
+        return noWinner;
+    }
+
+    /**
+     * Gets the number of rounds finished.
+     *
+     * @return The number of rounds.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the number of turns played.
+     *
+     * @return The number of turns.
+     */
+    public long getTurns() {
+        return turns;
+    }
+
+    /**
+     * Gets the number of rounds ended by a knock.
+     *
+     * @return The number of knocked rounds.
+     */
+    public long getKnockRounds() {
+        return knockRounds;
+    }
+
+    /**
+     * Gets the number of rounds ended by 31.
+     *
+     * @return The number of 31 endings.
+     */
+    public long getThirtyOneRounds() {
+        return thirtyOneRounds;
+    }
+
+    /**
+     * Gets the number of rounds ended by the turn limit.
+     *
+     * @return The number of rounds stopped by the turn limit.
+     */
+    public long getTurnLimitRounds() {
+        return turnLimitRounds;
+    }
+
+    /**
+     * Gets the number of knocks after which the knocker lost 2 lives.
+     *
+     * @return The number of knocks lost outright.
+     */
+    public long getKnockerLostTwo() {
+        return knockerLostTwo;
+    }
+
+    /**
+     * Gets the number of knocks after which the knocker, tied for the lowest
+     * hand, lost 1 life.
+     *
+     * @return The number of knocks lost on a tie.
+     */
+    public long getKnockerLostOne() {
+        return knockerLostOne;
+    }
+
+    /**
+     * Gets the fraction of knocks after which the knocker lost 2 lives.
+     *
+     * @return The rate, between 0 and 1.
+     */
+    public double getKnockerLostTwoRate() {
+        return knockRounds == 0 ? 0.0 : (double) knockerLostTwo / knockRounds;
+    }
+
+    /**
+     * Gets the statistics of the knocker's score.
+     *
+     * @return The knock score statistics.
+     */
+    public RunningStats getKnockScore() {
+        return knockScore;
+    }
+
+    /**
+     * Gets the distribution of the knocker's score, one bucket per score.
+     *
+     * @return The knock score histogram.
+     */
+    public FixedHistogram getKnockScores() {
+        return knockScores;
+    }
+
+    /**
+     * Gets the statistics of the number of turns per round.
+     *
+     * @return The turns per round statistics.
+     */
+    public RunningStats getTurnsPerRound() {
+        return turnsPerRound;
+    }
+
+    /**
+     * Gets the distribution of the number of turns per round.
+     *
+     * @return The turns per round histogram.
+     */
+    public FixedHistogram getTurnsPerRoundHistogram() {
+        return turnsPerRoundHistogram;
+    }
+
+    /**
+     * Gets the quantiles of the number of turns per round.
+     *
+     * @return The turns per round sketch.
+     */
+    public QuantileSketch getTurnsPerRoundQuantiles() {
+        return turnsPerRoundQuantiles;
+    }
+
+    /**
+     * Gets the statistics of the number of rounds per game.
+     *
+     * @return The rounds per game statistics.
+     */
+    public RunningStats getRoundsPerGame() {
+        return roundsPerGame;
+    }
+
+    /**
+     * Gets the quantiles of the number of turns per game.
+     *
+     * @return The turns per game sketch.
+     */
+    public QuantileSketch getTurnsPerGame() {
+        return turnsPerGame;
+    }
+
+    /**
+     * Writes the aggregates as CSV, with a header and one row per metric and
+     * statistic.
+     *
+     * @param out Where to write the CSV.
+     * @throws IOException if the CSV cannot be written.
+     */
+    public void writeCsv(Appendable out) throws IOException {
+        out.append("metric,statistic,value\n");
+        csvRow(out, "games", "count", games);
+        for (int seat = 0; seat < wins.length; seat++) {
+            csvRow(out, "wins", "seat_" + (seat + 1), wins[seat]);
+        }
+        csvRow(out, "wins", "none", noWinner);
+        csvRow(out, "rounds", "count", rounds);
+        csvRow(out, "rounds", "knock", knockRounds);
+        csvRow(out, "rounds", "thirty_one", thirtyOneRounds);
+        csvRow(out, "rounds", "turn_limit", turnLimitRounds);
+        csvRow(out, "turns", "count", turns);
+        csvRow(out, "knocker_lives_lost", "two", knockerLostTwo);
+        csvRow(out, "knocker_lives_lost", "one", knockerLostOne);
+        csvRow(out, "knocker_lives_lost", "none", knockRounds - knockerLostTwo - knockerLostOne);
+        knockScore.appendCsv(out, "knock_score");
+        knockScores.appendCsv(out, "knock_score_histogram");
+        turnsPerRound.appendCsv(out, "turns_per_round");
+        turnsPerRoundQuantiles.appendCsv(out, "turns_per_round");
+        turnsPerRoundHistogram.appendCsv(out, "turns_per_round_histogram");
+        roundsPerGame.appendCsv(out, "rounds_per_game");
+        turnsPerGame.appendCsv(out, "turns_per_game");
+    }
+
+    /**
+     * Writes the aggregates as one JSON object.
+     *
+     * @param out Where to write the JSON.
+     * @throws IOException if the JSON cannot be written.
+     */
+    public void writeJson(Appendable out) throws IOException {
+        out.append("{\"games\":").append(Long.toString(games)).append(",\"wins\":[");
+        for (int seat = 0; seat < wins.length; seat++) {
+            if (seat > 0) {
+                out.append(',');
+            }
+            out.append(Long.toString(wins[seat]));
+        }
+        out.append("],\"gamesWithoutWinner\":").append(Long.toString(noWinner))
+                .append(",\"rounds\":{\"count\":").append(Long.toString(rounds))
+                .append(",\"knock\":").append(Long.toString(knockRounds))
+                .append(",\"thirtyOne\":").append(Long.toString(thirtyOneRounds))
+                .append(",\"turnLimit\":").append(Long.toString(turnLimitRounds))
+                .append("},\"turns\":").append(Long.toString(turns))
+                .append(",\"knockerLivesLost\":{\"two\":").append(Long.toString(knockerLostTwo))
+                .append(",\"one\":").append(Long.toString(knockerLostOne))
+                .append(",\"none\":").append(Long.toString(knockRounds - knockerLostTwo - knockerLostOne))
+                .append("},\"knockScore\":{");
+        knockScore.appendJson(out);
+        out.append(",\"histogram\":");
+        knockScores.appendJson(out);
+        out.append("},\"turnsPerRound\":{");
+        turnsPerRound.appendJson(out);
+        out.append(',');
+        turnsPerRoundQuantiles.appendJson(out);
+        out.append(",\"histogram\":");
+        turnsPerRoundHistogram.appendJson(out);
+        out.append("},\"roundsPerGame\":{");
+        roundsPerGame.appendJson(out);
+        out.append("},\"turnsPerGame\":{");
+        turnsPerGame.appendJson(out);
+        out.append("}}\n");
+    }
+
+    /**
+     * Appends a CSV row with a whole number value.
+     *
+     * @param out       Where to append the row.
+     * @param metric    The name of the metric.
+     * @param statistic The name of the statistic.
+     * @param value     The value.
+     * @throws IOException if the row cannot be appended.
+     */
+    static void csvRow(Appendable out, String metric, String statistic, long value) throws IOException {
+        out.append(metric).append(',').append(statistic).append(',').append(Long.toString(value)).append('\n');
+    }
+
+    /**
+     * Appends a CSV row with a decimal value.
+     *
+     * @param out       Where to append the row.
+     * @param metric    The name of the metric.
+     * @param statistic The name of the statistic.
+     * @param value     The value.
+     * @throws IOException if the row cannot be appended.
+     */
+    static void csvRow(Appendable out, String metric, String statistic, double value) throws IOException {
+        out.append(metric).append(',').append(statistic).append(',').append(Double.toString(value)).append('\n');
+    }
+
+    /**
+     * Returns a summary of the aggregates, one line per question.
+     *
+     * @return A string representation of the aggregates.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Games played: ").append(games).append("\n");
+        for (int seat = 0; seat < wins.length; seat++) {
+            sb.append("Player ").append(seat + 1).append(" win rate: ")
+                    .append(String.format("%.4f", getWinRate(seat))).append("\n");
+        }
+        sb.append("Knock score: ").append(knockScore).append("\n");
+        sb.append("Knocker lost 2 lives: ").append(String.format("%.4f", getKnockerLostTwoRate())).append("\n");
+        sb.append("Turns per round: ").append(turnsPerRoundQuantiles).append("\n");
+        sb.append("Rounds per game: ").append(roundsPerGame).append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,234 @@
+package edu.guilford;
+
+/**
+ * One thing that happened in a game, as an immutable value that can be queued
+ * and written out after the game has moved on.
+ * Events are built by a {@link GameEventBus} only when some subscriber wants
+ * their level.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameEventBus
+ * @see AsyncGameEventWriter
+ */
+public final class GameEvent {
+
+    /**
+     * How much detail an event carries. A subscriber at one level receives the
+     * events of that level and of every coarser level.
+     */
+    public enum Level {
+        /**
+         * Every draw and discard.
+         */
+        TURN,
+
+        /**
+         * Knocks, 31s, lost lives and round endings.
+         */
+        ROUND,
+
+        /**
+         * Game endings only.
+         */
+        GAME
+    }
+
+    /**
+     * The kinds of event.
+     */
+    public enum Type {
+        DRAW(Level.TURN), DISCARD(Level.TURN), KNOCK(Level.ROUND), THIRTY_ONE(Level.ROUND),
+        LIVES_LOST(Level.ROUND), ROUND_END(Level.ROUND), GAME_END(Level.GAME);
+
+        private final Level level;
+
+        /**
+         * Constructor for Type, assigning the level of detail of the event.
+         *
+         * @param level The level of the event.
+         */
+        Type(Level level) {
+            this.level = level;
+        }
+
+        /**
+         * Gets the level of detail of the event.
+         *
+         * @return The event's level.
+         */
+        public Level getLevel() {
+            return level;
+        }
+    }
+
+    /**
+     * The kind of event.
+     */
+    private final Type type;
+
+    /**
+     * The number of the game the event happened in.
+     */
+    private final long game;
+
+    /**
+     * The round the event happened in, starting at 1.
+     */
+    private final int round;
+
+    /**
+     * The seat of the player involved, or -1 if there is none.
+     */
+    private final int seat;
+
+    /**
+     * The name of the player involved, or null if there is none.
+     */
+    private final String player;
+
+    /**
+     * The card involved, or null if there is none.
+     */
+    private final Card card;
+
+    /**
+     * The number of lives lost, for LIVES_LOST events.
+     */
+    private final int lives;
+
+    /**
+     * For DRAW, whether the card came from the discard pile; for DISCARD,
+     * whether it went to the stock pile; for ROUND_END, whether the round
+     * ended with 31.
+     */
+    private final boolean flag;
+
+    /**
+     * Constructs an event.
+     *
+     * @param type   The kind of event.
+     * @param game   The number of the game.
+     * @param round  The round, starting at 1.
+     * @param seat   The seat of the player involved, or -1.
+     * @param player The name of the player involved, or null.
+     * @param card   The card involved, or null.
+     * @param lives  The number of lives lost, or 0.
+     * @param flag   The event's flag; see {@link #getFlag()}.
+     */
+    public GameEvent(Type type, long game, int round, int seat, String player, Card card, int lives,
+            boolean flag) {
+        this.type = type;
+        this.game = game;
+        this.round = round;
+        this.seat = seat;
+        this.player = player;
+        this.card = card;
+        this.lives = lives;
+        this.flag = flag;
+    }
+
+    /**
+     * Gets the kind of event.
+     *
+     * @return The event type.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the number of the game the event happened in.
+     *
+     * @return The game number.
+     */
+    public long getGame() {
+        return game;
+    }
+
+    /**
+     * Gets the round the event happened in.
+     *
+     * @return The round, starting at 1.
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Gets the seat of the player involved.
+     *
+     * @return The seat, starting at 0, or -1 if there is none.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Gets the name of the player involved.
+     *
+     * @return The player's name, or null if there is none.
+     */
+    public String getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the card involved.
+     *
+     * @return The card, or null if there is none.
+     */
+    public Card getCard() {
+        return card;
+    }
+
+    /**
+     * Gets the number of lives lost.
+     *
+     * @return The lives lost by a LIVES_LOST event, 0 for other events.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the event's flag: for DRAW, true if the card came from the discard
+     * pile; for DISCARD, true if it went to the stock pile; for ROUND_END, true
+     * if the round ended with 31. Always false for other events.
+     *
+     * @return The flag.
+     */
+    public boolean getFlag() {
+        return flag;
+    }
+
+    /**
+     * Returns a one line description of the event, e.g.,
+     * "game 4 round 2: Player 1 draws ACE of SPADES from the discard pile".
+     *
+     * @return A string describing the event.
+     */
+    @Override
+    public String toString() {
+        String prefix = "game " + game + " round " + round + ": ";
+        switch (type) {
+            case DRAW:
+                return prefix + player + " draws " + card + (flag ? " from the discard pile" : " from the stock pile");
+            case DISCARD:
+                return prefix + player + " discards " + card + (flag ? " to the stock pile" : " to the discard pile");
+            case KNOCK:
+                return prefix + player + " knocks";
+            case THIRTY_ONE:
+                return prefix + player + " has 31";
+            case LIVES_LOST:
+                return prefix + player + " loses " + lives + (lives == 1 ? " life" : " lives");
+            case ROUND_END:
+                if (player == null) {
+                    return prefix + "round ended at the turn limit";
+                }
+                return prefix + "round ended by " + player + (flag ? " with 31" : " knocking");
+            default:
+                return prefix + (player == null ? "game over with no winner" : player + " wins the game");
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package edu.guilford;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A game listener that turns the game's callbacks into {@link GameEvent}
+ * objects and hands them to subscribers.
+ * Every subscriber chooses a level of detail. An event is only built if at
+ * least one subscriber wants its level, so a bus with no subscribers, or with
+ * only round level subscribers, creates nothing on the turn by turn path.
+ * <p>
+ * A bus follows one game at a time and belongs to the thread playing it; use
+ * one bus per thread. Subscribers that are shared between threads, such as an
+ * {@link AsyncGameEventWriter}, must be thread safe themselves. Games are
+ * numbered across all buses, so the events of games played on different
+ * threads can be told apart.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameEvent
+ * @see GameEventListener
+ */
+public class GameEventBus implements GameListener {
+
+    /**
+     * The source of game numbers, shared by every bus.
+     */
+    private static final AtomicLong GAMES = new AtomicLong();
+
+    /**
+     * The subscribers.
+     */
+    private List<GameEventListener> subscribers = new ArrayList<>();
+
+    /**
+     * The level every subscriber subscribed at, in the same order.
+     */
+    private List<GameEvent.Level> levels = new ArrayList<>();
+
+    /**
+     * The most detailed level any subscriber wants, or null if there are no
+     * subscribers.
+     */
+    private GameEvent.Level finest;
+
+    /**
+     * The number of the current game.
+     */
+    private long game;
+
+    /**
+     * The current round, starting at 1.
+     */
+    private int round;
+
+    /**
+     * Subscribes a listener to the events at the given level and every coarser
+     * level.
+     *
+     * @param listener The listener.
+     * @param level    The most detailed level the listener wants.
+     * @return This bus, for chaining.
+     */
+    public GameEventBus subscribe(GameEventListener listener, GameEvent.Level level) {
+        subscribers.add(listener);
+        levels.add(level);
+        if (finest == null || level.compareTo(finest) < 0) {
+            finest = level;
+        }
+        return this;
+    }
+
+    /**
+     * Checks if any subscriber wants events of the given level.
+     *
+     * @param level The level.
+     * @return true if events of that level are built and published.
+     */
+    public boolean isEnabled(GameEvent.Level level) {
+        return finest != null && finest.compareTo(level) <= 0;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        this.game = GAMES.incrementAndGet();
+        round = 0;
+    }
+
+    @Override
+    public void roundStarted() {
+        round++;
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card, boolean fromDiscard) {
+        if (isEnabled(GameEvent.Level.TURN)) {
+            publish(GameEvent.Type.DRAW, player, card, 0, fromDiscard);
+        }
+    }
+
+    @Override
+    public void cardDiscarded(Player player, Card card, boolean toStock) {
+        if (isEnabled(GameEvent.Level.TURN)) {
+            publish(GameEvent.Type.DISCARD, player, card, 0, toStock);
+        }
+    }
+
+    @Override
+    public void knocked(Player player) {
+        if (isEnabled(GameEvent.Level.ROUND)) {
+            publish(GameEvent.Type.KNOCK, player, null, 0, false);
+        }
+    }
+
+    @Override
+    public void thirtyOne(Player player) {
+        if (isEnabled(GameEvent.Level.ROUND)) {
+            publish(GameEvent.Type.THIRTY_ONE, player, null, 0, false);
+        }
+    }
+
+    @Override
+    public void livesLost(Player player, int lives) {
+        if (isEnabled(GameEvent.Level.ROUND)) {
+            publish(GameEvent.Type.LIVES_LOST, player, null, lives, false);
+        }
+    }
+
+    @Override
+    public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+        if (isEnabled(GameEvent.Level.ROUND)) {
+            publish(GameEvent.Type.ROUND_END, ender, null, 0, thirtyOne);
+        }
+    }
+
+    @Override
+    public void gameEnded(Player winner) {
+        if (isEnabled(GameEvent.Level.GAME)) {
+            publish(GameEvent.Type.GAME_END, winner, null, 0, false);
+        }
+    }
+
+    /**
+     * Builds an event and hands it to every subscriber that wants its level.
+     *
+     * @param type   The kind of event.
+     * @param player The player involved, or null.
+     * @param card   The card involved, or null.
+     * @param lives  The number of lives lost, or 0.
+     * @param flag   The event's flag.
+     */
+    private void publish(GameEvent.Type type, Player player, Card card, int lives, boolean flag) {
+        GameEvent event = new GameEvent(type, game, round, player == null ? -1 : player.getSeat(),
+                player == null ? null : player.getName(), card, lives, flag);
+        for (int i = 0; i < subscribers.size(); i++) {
+            if (levels.get(i).compareTo(type.getLevel()) <= 0) {
+                subscribers.get(i).onEvent(event);
+            }
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package edu.guilford;
+
+/**
+ * Receives the typed events of a {@link GameEventBus}.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameEvent
+ */
+@FunctionalInterface
+public interface GameEventListener {
+
+    /**
+     * Called for every event at or above the level the listener subscribed at.
+     *
+     * @param event The event.
+     */
+    void onEvent(GameEvent event);
+}
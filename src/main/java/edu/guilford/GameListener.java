@@ -0,0 +1,163 @@
+package edu.guilford;
+
+import java.util.List;
+
+/**
+ * Receives the events produced by a {@link Game} while it is being played.
+ * The game itself never prints anything; everything a person would see at the
+ * table is reported through this interface, so presentation can be swapped
+ * out or switched off entirely.
+ * Every method has an empty default implementation, so a listener only
+ * overrides the events it cares about.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see ConsoleGameListener
+ */
+public interface GameListener {
+
+    /**
+     * A listener that ignores every event. Games created without a listener use
+     * this one, which keeps headless games free of any output cost.
+     */
+    GameListener NONE = new GameListener() {
+    };
+
+    /**
+     * Called once when a game has been set up, before the first deal.
+     *
+     * @param game The game being started.
+     */
+    default void gameStarted(Game game) {
+    }
+
+    /**
+     * Called after every deal, once all players have their cards and the first
+     * card has been turned onto the discard pile.
+     *
+     * @param players    All players in the game, including eliminated ones.
+     * @param topDiscard The card turned onto the discard pile.
+     */
+    default void handsDealt(List<Player> players, Card topDiscard) {
+    }
+
+    /**
+     * Called when a new round is about to be dealt.
+     */
+    default void roundStarted() {
+    }
+
+    /**
+     * Called at the start of a player's turn.
+     *
+     * @param player     The player whose turn it is.
+     * @param topDiscard The card on top of the discard pile.
+     */
+    default void turnStarted(Player player, Card topDiscard) {
+    }
+
+    /**
+     * Called when the discard pile was empty and a card was moved onto it from
+     * the stock pile.
+     *
+     * @param card The card moved onto the discard pile.
+     */
+    default void discardPileRefilled(Card card) {
+    }
+
+    /**
+     * Called when a player draws from an empty stock pile and the discard pile,
+     * all but its top card, has been shuffled into the stock pile.
+     *
+     * @param cards The number of cards moved into the stock pile.
+     */
+    default void stockPileRecycled(int cards) {
+    }
+
+    /**
+     * Called when a player draws a card.
+     *
+     * @param player      The player drawing the card.
+     * @param card        The card drawn.
+     * @param fromDiscard true if the card came from the discard pile, false if it
+     *                    came from the stock pile.
+     */
+    default void cardDrawn(Player player, Card card, boolean fromDiscard) {
+    }
+
+    /**
+     * Called when a player discards a card.
+     *
+     * @param player  The player discarding the card.
+     * @param card    The card discarded.
+     * @param toStock true if the card went to the stock pile, false if it went to
+     *                the discard pile.
+     */
+    default void cardDiscarded(Player player, Card card, boolean toStock) {
+    }
+
+    /**
+     * Called when a player reaches 31 and ends the round immediately.
+     *
+     * @param player The player who reached 31.
+     */
+    default void thirtyOne(Player player) {
+    }
+
+    /**
+     * Called when a player knocks.
+     *
+     * @param player The player who knocked.
+     */
+    default void knocked(Player player) {
+    }
+
+    /**
+     * Called when a round reaches the game's turn limit without anyone
+     * knocking or reaching 31. The round is then ended according to the
+     * game's {@link Game.TurnLimitResolution}.
+     *
+     * @param turns The number of turns played in the round.
+     */
+    default void turnLimitReached(int turns) {
+    }
+
+    /**
+     * Called for every player still in the game when a knock, or a showdown at
+     * the turn limit, is resolved.
+     *
+     * @param player The player whose hand is shown.
+     * @param score  The value of the player's hand.
+     */
+    default void scoreRevealed(Player player, int score) {
+    }
+
+    /**
+     * Called when a player loses one or more lives.
+     *
+     * @param player The player losing lives.
+     * @param lives  The number of lives lost.
+     */
+    default void livesLost(Player player, int lives) {
+    }
+
+    /**
+     * Called when a round is over.
+     *
+     * @param players   All players in the game, including eliminated ones.
+     * @param ender     The player who ended the round, or null if the round
+     *                  ended at the turn limit.
+     * @param thirtyOne true if the round ended because the player reached 31,
+     *                  false if it ended with a knock.
+     */
+    default void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+    }
+
+    /**
+     * Called once when only one player has lives remaining.
+     *
+     * @param winner The winner of the game, or null if nobody is left.
+     */
+    default void gameEnded(Player winner) {
+    }
+}
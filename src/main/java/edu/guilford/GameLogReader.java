@@ -0,0 +1,315 @@
+package edu.guilford;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads the records of a binary game log one at a time.
+ * After next() returns a record, its fields can be read with the getters
+ * until next() is called again; getters for fields the record does not have
+ * return whatever the last record that had them left there.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameLogWriter
+ * @see GameReplayer
+ */
+public class GameLogReader implements Closeable {
+
+    /**
+     * The size of the read buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The channel the log is read from.
+     */
+    private ReadableByteChannel channel;
+
+    /**
+     * Bytes read from the channel but not yet decoded.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * The number of players in the current game.
+     */
+    private int numPlayers;
+
+    /**
+     * Whether the current game was started from a seed.
+     */
+    private boolean seeded;
+
+    /**
+     * The seed of the current game.
+     */
+    private long seed;
+
+    /**
+     * The seat in the last record that had one.
+     */
+    private int seat;
+
+    /**
+     * The card in the last record that had one, or -1 for no card.
+     */
+    private int card;
+
+    /**
+     * The number of lives in the last LIVES_LOST record.
+     */
+    private int lives;
+
+    /**
+     * The number in the last RECYCLE or TURN_LIMIT record.
+     */
+    private int count;
+
+    /**
+     * The hands in the last DEAL record, as card masks by seat.
+     */
+    private long[] dealtHands = new long[0];
+
+    /**
+     * Constructs a reader for the given channel.
+     *
+     * @param channel The channel to read the log from.
+     */
+    public GameLogReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip(); // Start with nothing to decode
+    }
+
+    /**
+     * Opens a log file for reading.
+     *
+     * @param path The log file.
+     * @return A reader for the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static GameLogReader open(Path path) throws IOException {
+        return new GameLogReader(FileChannel.open(path, StandardOpenOption.READ));
+    }
+
+    /**
+     * Reads the next record.
+     *
+     * @return The record type, or null at the end of the log.
+     * @throws IOException if the log cannot be read or ends in the middle of a
+     *                     record.
+     */
+    public GameLogRecord next() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return null;
+        }
+        GameLogRecord record = GameLogRecord.fromCode(readByte());
+        switch (record) {
+            case GAME_START:
+                numPlayers = readVarint();
+                seeded = readByte() != 0;
+                seed = readLong();
+                if (dealtHands.length != numPlayers) {
+                    dealtHands = new long[numPlayers];
+                }
+                break;
+            case DEAL:
+                for (int i = 0; i < numPlayers; i++) {
+                    int size = readVarint();
+                    long hand = 0L;
+                    for (int j = 0; j < size; j++) {
+                        int dealt = readCard();
+                        if (dealt >= 0) {
+                            hand |= CardMask.bit(dealt);
+                        }
+                    }
+                    dealtHands[i] = hand;
+                }
+                card = readCard();
+                break;
+            case REFILL:
+                card = readCard();
+                break;
+            case DRAW_STOCK:
+            case DRAW_DISCARD:
+            case DISCARD_TO_PILE:
+            case DISCARD_TO_STOCK:
+                seat = readVarint();
+                card = readCard();
+                break;
+            case LIVES_LOST:
+                seat = readVarint();
+                lives = readVarint();
+                break;
+            case RECYCLE:
+            case TURN_LIMIT:
+                count = readVarint();
+                break;
+            default: // KNOCK, THIRTY_ONE, ROUND_END, GAME_END
+                seat = readVarint();
+                break;
+        }
+        return record;
+    }
+
+    /**
+     * Gets the number of players in the current game.
+     *
+     * @return The number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Checks if the current game was started from a seed.
+     *
+     * @return true if getSeed() is the game's seed.
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * Gets the seed of the current game.
+     *
+     * @return The seed, or 0 if the game was not seeded.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the seat in the last record.
+     *
+     * @return The seat, starting at 0.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Gets the card in the last record.
+     *
+     * @return The card index, or -1 if the record had no card.
+     */
+    public int getCard() {
+        return card;
+    }
+
+    /**
+     * Gets the number of lives in the last LIVES_LOST record.
+     *
+     * @return The number of lives lost.
+     */
+    public int getLives() {
+        return lives;
+    }
+
+    /**
+     * Gets the number in the last RECYCLE or TURN_LIMIT record.
+     *
+     * @return The number of cards recycled or turns played.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Gets a hand from the last DEAL record.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The cards dealt to that seat.
+     */
+    public long getDealtHand(int seat) {
+        return dealtHands[seat];
+    }
+
+    /**
+     * Closes the channel.
+     *
+     * @throws IOException if the channel cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Moves undecoded bytes to the front of the buffer and reads more from the
+     * channel.
+     *
+     * @return false if the channel is at its end and nothing was read.
+     * @throws IOException if the channel cannot be read.
+     */
+    private boolean fill() throws IOException {
+        buffer.compact();
+        int read = channel.read(buffer);
+        buffer.flip();
+        return read > 0;
+    }
+
+    /**
+     * Reads one unsigned byte.
+     *
+     * @return The byte, from 0 to 255.
+     * @throws IOException if the log ends first.
+     */
+    private int readByte() throws IOException {
+        while (!buffer.hasRemaining()) {
+            if (!fill()) {
+                throw new EOFException("Game log ends in the middle of a record");
+            }
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    /**
+     * Reads a card byte.
+     *
+     * @return The card index, or -1 for no card.
+     * @throws IOException if the log ends first.
+     */
+    private int readCard() throws IOException {
+        int value = readByte();
+        return value == GameLogWriter.NO_CARD ? -1 : value;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @return The value.
+     * @throws IOException if the log ends first.
+     */
+    private int readVarint() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = readByte();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * Reads an eight byte big-endian long.
+     *
+     * @return The value.
+     * @throws IOException if the log ends first.
+     */
+    private long readLong() throws IOException {
+        long value = 0L;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | readByte();
+        }
+        return value;
+    }
+}
@@ -0,0 +1,138 @@
+package edu.guilford;
+
+/**
+ * The kinds of record in a binary game log.
+ * Every record starts with its one byte code, followed by its fields:
+ * seats and counts as unsigned varints, cards as a single byte holding the
+ * card index (255 for no card), and seeds as eight bytes.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameLogWriter
+ * @see GameLogReader
+ */
+public enum GameLogRecord {
+
+    /**
+     * A new game: number of players, seeded flag (one byte), seed.
+     */
+    GAME_START(1),
+
+    /**
+     * A deal: for each seat the hand size and its cards, then the card turned
+     * onto the discard pile.
+     */
+    DEAL(2),
+
+    /**
+     * A player draws from the stock pile: seat, card.
+     */
+    DRAW_STOCK(3),
+
+    /**
+     * A player takes the top of the discard pile: seat, card.
+     */
+    DRAW_DISCARD(4),
+
+    /**
+     * A player discards onto the discard pile: seat, card.
+     */
+    DISCARD_TO_PILE(5),
+
+    /**
+     * A player discards into the stock pile: seat, card.
+     */
+    DISCARD_TO_STOCK(6),
+
+    /**
+     * The empty discard pile is refilled from the stock pile: card.
+     */
+    REFILL(7),
+
+    /**
+     * A player knocks: seat.
+     */
+    KNOCK(8),
+
+    /**
+     * A player reaches 31: seat.
+     */
+    THIRTY_ONE(9),
+
+    /**
+     * A player loses lives: seat, number of lives.
+     */
+    LIVES_LOST(10),
+
+    /**
+     * The round is over: seat of the player who ended it, or the number of
+     * players if it ended at the turn limit.
+     */
+    ROUND_END(11),
+
+    /**
+     * The game is over: seat of the winner, or the number of players if there
+     * is no winner.
+     */
+    GAME_END(12),
+
+    /**
+     * The discard pile but its top card is shuffled into the empty stock pile:
+     * number of cards moved.
+     */
+    RECYCLE(13),
+
+    /**
+     * The round reaches the turn limit: number of turns played. A ROUND_END
+     * record with the number of players as its seat follows.
+     */
+    TURN_LIMIT(14);
+
+    /**
+     * Records by code, for decoding.
+     */
+    private static final GameLogRecord[] BY_CODE = new GameLogRecord[15];
+
+    static {
+        for (GameLogRecord record : values()) {
+            BY_CODE[record.code] = record;
+        }
+    }
+
+    /**
+     * The byte that identifies the record in a log.
+     */
+    private final int code;
+
+    /**
+     * Constructor for GameLogRecord, assigning the record's code.
+     *
+     * @param code The byte that identifies the record.
+     */
+    GameLogRecord(int code) {
+        this.code = code;
+    }
+
+    /**
+     * Gets the byte that identifies the record in a log.
+     *
+     * @return The record code.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the record with the given code.
+     *
+     * @param code The record code.
+     * @return The record.
+     * @throws IllegalArgumentException if no record has that code.
+     */
+    public static GameLogRecord fromCode(int code) {
+        if (code <= 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown game log record code " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,269 @@
+package edu.guilford;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * A game listener that appends every event to a compact binary log.
+ * Most records take three bytes: a record code, a seat and a card. Records
+ * are collected in a direct buffer and written to the channel only when the
+ * buffer fills up, so logging costs the game almost nothing.
+ * <p>
+ * Any number of games can be logged one after another to the same writer;
+ * each starts with a {@link GameLogRecord#GAME_START} record holding its seed.
+ * A writer belongs to one thread. I/O errors are thrown as
+ * UncheckedIOException, since listener methods cannot throw IOException.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameLogRecord
+ * @see GameReplayer
+ */
+public class GameLogWriter implements GameListener, Closeable {
+
+    /**
+     * The size of the write buffer in bytes.
+     */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The most bytes a record other than a deal can take.
+     */
+    private static final int MAX_RECORD = 16;
+
+    /**
+     * The byte written for a missing card.
+     */
+    static final int NO_CARD = 255;
+
+    /**
+     * The channel the log is written to.
+     */
+    private WritableByteChannel channel;
+
+    /**
+     * Records waiting to be written to the channel.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+    /**
+     * The players of the game being logged, in seat order.
+     */
+    private List<Player> players;
+
+    /**
+     * Constructs a writer that appends to the given channel.
+     *
+     * @param channel The channel to write the log to.
+     */
+    public GameLogWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a log file for appending, creating it if it does not exist.
+     *
+     * @param path The log file.
+     * @return A writer appending to the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static GameLogWriter open(Path path) throws IOException {
+        return new GameLogWriter(FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND));
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        players = game.getPlayers();
+        reserve(MAX_RECORD);
+        buffer.put((byte) GameLogRecord.GAME_START.getCode());
+        putVarint(players.size());
+        buffer.put((byte) (game.hasSeed() ? 1 : 0));
+        buffer.putLong(game.hasSeed() ? game.getSeed() : 0L);
+    }
+
+    @Override
+    public void handsDealt(List<Player> players, Card topDiscard) {
+        reserve(1);
+        buffer.put((byte) GameLogRecord.DEAL.getCode());
+        for (Player player : players) {
+            Hand hand = player.getHand();
+            reserve(MAX_RECORD + 4); // Large tables may not fit one buffer
+            putVarint(hand.size());
+            for (int i = 0; i < hand.size(); i++) {
+                putCard(hand.getCard(i));
+            }
+        }
+        reserve(1);
+        putCard(topDiscard);
+    }
+
+    @Override
+    public void discardPileRefilled(Card card) {
+        reserve(MAX_RECORD);
+        buffer.put((byte) GameLogRecord.REFILL.getCode());
+        putCard(card);
+    }
+
+    @Override
+    public void stockPileRecycled(int cards) {
+        reserve(MAX_RECORD);
+        buffer.put((byte) GameLogRecord.RECYCLE.getCode());
+        putVarint(cards);
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card, boolean fromDiscard) {
+        writeSeatCard(fromDiscard ? GameLogRecord.DRAW_DISCARD : GameLogRecord.DRAW_STOCK, player, card);
+    }
+
+    @Override
+    public void cardDiscarded(Player player, Card card, boolean toStock) {
+        writeSeatCard(toStock ? GameLogRecord.DISCARD_TO_STOCK : GameLogRecord.DISCARD_TO_PILE, player, card);
+    }
+
+    @Override
+    public void thirtyOne(Player player) {
+        writeSeat(GameLogRecord.THIRTY_ONE, player);
+    }
+
+    @Override
+    public void knocked(Player player) {
+        writeSeat(GameLogRecord.KNOCK, player);
+    }
+
+    @Override
+    public void turnLimitReached(int turns) {
+        reserve(MAX_RECORD);
+        buffer.put((byte) GameLogRecord.TURN_LIMIT.getCode());
+        putVarint(turns);
+    }
+
+    @Override
+    public void livesLost(Player player, int lives) {
+        writeSeat(GameLogRecord.LIVES_LOST, player);
+        putVarint(lives);
+    }
+
+    @Override
+    public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+        writeSeat(GameLogRecord.ROUND_END, ender);
+    }
+
+    @Override
+    public void gameEnded(Player winner) {
+        reserve(MAX_RECORD);
+        buffer.put((byte) GameLogRecord.GAME_END.getCode());
+        putVarint(seat(winner));
+    }
+
+    /**
+     * Writes any buffered records to the channel.
+     *
+     * @throws UncheckedIOException if the channel cannot be written.
+     */
+    public void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Writes any buffered records and closes the channel.
+     *
+     * @throws IOException if the channel cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Writes a record made of a code and a seat.
+     *
+     * @param record The record type.
+     * @param player The player whose seat is written, or null.
+     */
+    private void writeSeat(GameLogRecord record, Player player) {
+        reserve(MAX_RECORD);
+        buffer.put((byte) record.getCode());
+        putVarint(seat(player));
+    }
+
+    /**
+     * Gets a player's seat.
+     *
+     * @param player The player, or null.
+     * @return The seat, or the number of players for null.
+     */
+    private int seat(Player player) {
+        return player == null ? players.size() : player.getSeat();
+    }
+
+    /**
+     * Writes a record made of a code, a seat and a card.
+     *
+     * @param record The record type.
+     * @param player The player whose seat is written.
+     * @param card   The card written.
+     */
+    private void writeSeatCard(GameLogRecord record, Player player, Card card) {
+        writeSeat(record, player);
+        putCard(card);
+    }
+
+    /**
+     * Makes sure the buffer has room for the given number of bytes, flushing it
+     * to the channel if it does not.
+     *
+     * @param bytes The number of bytes about to be written.
+     */
+    private void reserve(int bytes) {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes a card as its index, or NO_CARD for null.
+     *
+     * @param card The card to write.
+     */
+    private void putCard(Card card) {
+        buffer.put((byte) (card == null ? NO_CARD : card.index()));
+    }
+
+    /**
+     * Writes a non-negative int as an unsigned varint: seven bits per byte,
+     * lowest bits first, with the high bit set on every byte but the last.
+     *
+     * @param value The value to write.
+     */
+    private void putVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
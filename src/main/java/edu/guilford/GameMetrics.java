@@ -0,0 +1,501 @@
+package edu.guilford;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Counters and histograms describing the games played by an engine, meant to
+ * be shared by every thread of a service.
+ * <p>
+ * Games report to the metrics through a listener from {@link #listener()},
+ * one per game or thread, which counts rounds, turns, knocks, 31s, lives
+ * lost, discard pile refills, stock pile recycles, rounds stopped by the turn
+ * limit and draws from an empty stock pile, and times every round.
+ * Strategy decisions are timed by wrapping the strategy with
+ * {@link #wrap(Strategy)}. Counters are LongAdders and histograms are
+ * {@link LatencyHistogram}s, so threads never wait for each other.
+ * <p>
+ * Games that are not given the listener or a wrapped strategy pay nothing.
+ * Once attached, recording can be switched off with setEnabled(false), which
+ * leaves a single volatile read per event. The metrics can be read as a
+ * snapshot map or published over JMX with {@link #register(String)}.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameMetricsMXBean
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    /**
+     * Whether metrics are being recorded.
+     */
+    private volatile boolean enabled = true;
+
+    /**
+     * The number of games finished.
+     */
+    private LongAdder games = new LongAdder();
+
+    /**
+     * The number of rounds started.
+     */
+    private LongAdder rounds = new LongAdder();
+
+    /**
+     * The number of turns started.
+     */
+    private LongAdder turns = new LongAdder();
+
+    /**
+     * The number of rounds ended by a knock.
+     */
+    private LongAdder knocks = new LongAdder();
+
+    /**
+     * The number of rounds ended by 31.
+     */
+    private LongAdder thirtyOnes = new LongAdder();
+
+    /**
+     * The number of times the empty discard pile was refilled from the stock.
+     */
+    private LongAdder discardRefills = new LongAdder();
+
+    /**
+     * The number of draws from an empty stock pile, which give the player no
+     * card.
+     */
+    private LongAdder stockExhausted = new LongAdder();
+
+    /**
+     * The number of times the discard pile was shuffled into the empty stock.
+     */
+    private LongAdder stockRecycles = new LongAdder();
+
+    /**
+     * The number of rounds ended by the turn limit.
+     */
+    private LongAdder turnLimitRounds = new LongAdder();
+
+    /**
+     * The number of lives lost.
+     */
+    private LongAdder livesLost = new LongAdder();
+
+    /**
+     * Time taken to decide whether to take the top discard, in nanoseconds.
+     */
+    private LatencyHistogram takeDiscardLatency = new LatencyHistogram();
+
+    /**
+     * Time taken to choose a discard, in nanoseconds.
+     */
+    private LatencyHistogram discardLatency = new LatencyHistogram();
+
+    /**
+     * Time taken to decide whether to knock, in nanoseconds.
+     */
+    private LatencyHistogram knockLatency = new LatencyHistogram();
+
+    /**
+     * Duration of every round, in nanoseconds.
+     */
+    private LatencyHistogram roundDuration = new LatencyHistogram();
+
+    /**
+     * Number of turns in every round.
+     */
+    private LatencyHistogram turnsPerRound = new LatencyHistogram();
+
+    /**
+     * Creates a listener that records a game into these metrics. The listener
+     * keeps the state of the round in progress, so it must only follow one
+     * game at a time; create one per thread.
+     *
+     * @return A new listener.
+     */
+    public GameListener listener() {
+        return new MetricsListener();
+    }
+
+    /**
+     * Wraps a strategy so that its decisions are timed into these metrics.
+     *
+     * @param strategy The strategy to time.
+     * @return A strategy making the same decisions.
+     */
+    public Strategy wrap(Strategy strategy) {
+        return new TimedStrategy(strategy);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    @Override
+    public long getGames() {
+        return games.sum();
+    }
+
+    @Override
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    @Override
+    public long getTurns() {
+        return turns.sum();
+    }
+
+    @Override
+    public long getKnocks() {
+        return knocks.sum();
+    }
+
+    @Override
+    public long getThirtyOnes() {
+        return thirtyOnes.sum();
+    }
+
+    @Override
+    public long getDiscardRefills() {
+        return discardRefills.sum();
+    }
+
+    @Override
+    public long getStockExhausted() {
+        return stockExhausted.sum();
+    }
+
+    @Override
+    public long getStockRecycles() {
+        return stockRecycles.sum();
+    }
+
+    @Override
+    public long getTurnLimitRounds() {
+        return turnLimitRounds.sum();
+    }
+
+    @Override
+    public long getLivesLost() {
+        return livesLost.sum();
+    }
+
+    @Override
+    public long getTakeDiscardLatencyP99() {
+        return takeDiscardLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getDiscardLatencyP99() {
+        return discardLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getKnockLatencyP99() {
+        return knockLatency.getPercentile(99);
+    }
+
+    @Override
+    public long getRoundDurationP50() {
+        return roundDuration.getPercentile(50);
+    }
+
+    @Override
+    public long getRoundDurationP99() {
+        return roundDuration.getPercentile(99);
+    }
+
+    /**
+     * Gets the histogram of the time taken to decide whether to take the top
+     * discard.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getTakeDiscardLatency() {
+        return takeDiscardLatency;
+    }
+
+    /**
+     * Gets the histogram of the time taken to choose a discard.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getDiscardLatency() {
+        return discardLatency;
+    }
+
+    /**
+     * Gets the histogram of the time taken to decide whether to knock.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getKnockLatency() {
+        return knockLatency;
+    }
+
+    /**
+     * Gets the histogram of round durations.
+     *
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getRoundDuration() {
+        return roundDuration;
+    }
+
+    /**
+     * Gets the histogram of the number of turns in a round.
+     *
+     * @return The histogram.
+     */
+    public LatencyHistogram getTurnsPerRound() {
+        return turnsPerRound;
+    }
+
+    /**
+     * Reads every metric at once. The counters are read one after another
+     * while games may still be running, so the values are each exact but not
+     * necessarily from the same instant.
+     *
+     * @return The metrics by name, in a fixed order.
+     */
+    @Override
+    public Map<String, Long> getSnapshot() {
+        Map<String, Long> snapshot = new LinkedHashMap<>();
+        snapshot.put("games", getGames());
+        snapshot.put("rounds", getRounds());
+        snapshot.put("turns", getTurns());
+        snapshot.put("knocks", getKnocks());
+        snapshot.put("thirtyOnes", getThirtyOnes());
+        snapshot.put("livesLost", getLivesLost());
+        snapshot.put("discardRefills", getDiscardRefills());
+        snapshot.put("stockRecycles", getStockRecycles());
+        snapshot.put("turnLimitRounds", getTurnLimitRounds());
+        snapshot.put("stockExhausted", getStockExhausted());
+        putHistogram(snapshot, "takeDiscardLatency", takeDiscardLatency);
+        putHistogram(snapshot, "discardLatency", discardLatency);
+        putHistogram(snapshot, "knockLatency", knockLatency);
+        putHistogram(snapshot, "roundDuration", roundDuration);
+        putHistogram(snapshot, "turnsPerRound", turnsPerRound);
+        return Collections.unmodifiableMap(snapshot);
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder counter : new LongAdder[] { games, rounds, turns, knocks, thirtyOnes, discardRefills,
+                stockRecycles, turnLimitRounds, stockExhausted, livesLost }) {
+            counter.reset();
+        }
+        for (LatencyHistogram histogram : new LatencyHistogram[] { takeDiscardLatency, discardLatency,
+                knockLatency, roundDuration, turnsPerRound }) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Publishes the metrics on the platform MBean server as
+     * {@code edu.guilford:type=GameMetrics,name=<name>}.
+     *
+     * @param name The name to publish the metrics under.
+     * @return The name the metrics were registered with.
+     * @throws IllegalStateException if the metrics could not be registered, for
+     *                               example because the name is taken.
+     */
+    public ObjectName register(String name) {
+        try {
+            ObjectName objectName = new ObjectName("edu.guilford:type=GameMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            return objectName;
+        } catch (JMException e) {
+            throw new IllegalStateException("Could not register game metrics as " + name, e);
+        }
+    }
+
+    /**
+     * Adds a histogram's count, mean, median, 99th percentile and maximum to a
+     * snapshot.
+     *
+     * @param snapshot  The snapshot.
+     * @param name      The histogram's name.
+     * @param histogram The histogram.
+     */
+    private static void putHistogram(Map<String, Long> snapshot, String name, LatencyHistogram histogram) {
+        snapshot.put(name + ".count", histogram.getCount());
+        snapshot.put(name + ".mean", Math.round(histogram.getMean()));
+        snapshot.put(name + ".p50", histogram.getPercentile(50));
+        snapshot.put(name + ".p99", histogram.getPercentile(99));
+        snapshot.put(name + ".max", histogram.getMax());
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for (Map.Entry<String, Long> entry : getSnapshot().entrySet()) {
+            text.append(entry.getKey()).append(": ").append(entry.getValue()).append("\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * Listener that counts one game's events into the metrics.
+     */
+    private class MetricsListener implements GameListener {
+
+        /**
+         * When the current round started, from System.nanoTime().
+         */
+        private long roundStart;
+
+        /**
+         * The number of turns played in the current round.
+         */
+        private int roundTurns;
+
+        @Override
+        public void roundStarted() {
+            if (enabled) {
+                rounds.increment();
+                roundStart = System.nanoTime();
+                roundTurns = 0;
+            }
+        }
+
+        @Override
+        public void turnStarted(Player player, Card topDiscard) {
+            if (enabled) {
+                turns.increment();
+                roundTurns++;
+            }
+        }
+
+        @Override
+        public void discardPileRefilled(Card card) {
+            if (enabled) {
+                discardRefills.increment();
+            }
+        }
+
+        @Override
+        public void stockPileRecycled(int cards) {
+            if (enabled) {
+                stockRecycles.increment();
+            }
+        }
+
+        @Override
+        public void turnLimitReached(int turns) {
+            if (enabled) {
+                turnLimitRounds.increment();
+            }
+        }
+
+        @Override
+        public void cardDrawn(Player player, Card card, boolean fromDiscard) {
+            if (enabled && card == null) {
+                stockExhausted.increment();
+            }
+        }
+
+        @Override
+        public void thirtyOne(Player player) {
+            if (enabled) {
+                thirtyOnes.increment();
+            }
+        }
+
+        @Override
+        public void knocked(Player player) {
+            if (enabled) {
+                knocks.increment();
+            }
+        }
+
+        @Override
+        public void livesLost(Player player, int lives) {
+            if (enabled) {
+                livesLost.add(lives);
+            }
+        }
+
+        @Override
+        public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+            if (enabled && roundStart != 0) {
+                roundDuration.record(System.nanoTime() - roundStart);
+                turnsPerRound.record(roundTurns);
+            }
+        }
+
+        @Override
+        public void gameEnded(Player winner) {
+            if (enabled) {
+                games.increment();
+            }
+        }
+    }
+
+    /**
+     * Strategy that times every decision of another strategy.
+     */
+    private class TimedStrategy implements Strategy {
+
+        /**
+         * The strategy making the decisions.
+         */
+        private Strategy strategy;
+
+        /**
+         * Constructs a strategy timing the given one.
+         *
+         * @param strategy The strategy making the decisions.
+         */
+        TimedStrategy(Strategy strategy) {
+            this.strategy = strategy;
+        }
+
+        @Override
+        public boolean shouldTakeDiscard(Hand hand, Card topDiscard) {
+            if (!enabled) {
+                return strategy.shouldTakeDiscard(hand, topDiscard);
+            }
+            long start = System.nanoTime();
+            boolean take = strategy.shouldTakeDiscard(hand, topDiscard);
+            takeDiscardLatency.record(System.nanoTime() - start);
+            return take;
+        }
+
+        @Override
+        public Card chooseDiscard(Hand hand) {
+            if (!enabled) {
+                return strategy.chooseDiscard(hand);
+            }
+            long start = System.nanoTime();
+            Card discard = strategy.chooseDiscard(hand);
+            discardLatency.record(System.nanoTime() - start);
+            return discard;
+        }
+
+        @Override
+        public boolean shouldKnock(Hand hand) {
+            if (!enabled) {
+                return strategy.shouldKnock(hand);
+            }
+            long start = System.nanoTime();
+            boolean knock = strategy.shouldKnock(hand);
+            knockLatency.record(System.nanoTime() - start);
+            return knock;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package edu.guilford;
+
+import java.util.Map;
+
+/**
+ * The management interface {@link GameMetrics} is published through over JMX.
+ * Latencies and durations are in nanoseconds.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameMetrics#register(String)
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * @return Whether metrics are being recorded.
+     */
+    boolean isEnabled();
+
+    /**
+     * @param enabled Whether to record metrics.
+     */
+    void setEnabled(boolean enabled);
+
+    /**
+     * @return The number of games finished.
+     */
+    long getGames();
+
+    /**
+     * @return The number of rounds started.
+     */
+    long getRounds();
+
+    /**
+     * @return The number of turns started.
+     */
+    long getTurns();
+
+    /**
+     * @return The number of rounds ended by a knock.
+     */
+    long getKnocks();
+
+    /**
+     * @return The number of rounds ended by 31.
+     */
+    long getThirtyOnes();
+
+    /**
+     * @return The number of times the empty discard pile was refilled.
+     */
+    long getDiscardRefills();
+
+    /**
+     * @return The number of draws from an empty stock pile.
+     */
+    long getStockExhausted();
+
+    /**
+     * @return The number of times the discard pile was shuffled into the empty
+     *         stock pile.
+     */
+    long getStockRecycles();
+
+    /**
+     * @return The number of rounds ended by the turn limit.
+     */
+    long getTurnLimitRounds();
+
+    /**
+     * @return The number of lives lost.
+     */
+    long getLivesLost();
+
+    /**
+     * @return The 99th percentile time of deciding whether to take the top
+     *         discard.
+     */
+    long getTakeDiscardLatencyP99();
+
+    /**
+     * @return The 99th percentile time of choosing a discard.
+     */
+    long getDiscardLatencyP99();
+
+    /**
+     * @return The 99th percentile time of deciding whether to knock.
+     */
+    long getKnockLatencyP99();
+
+    /**
+     * @return The median round duration.
+     */
+    long getRoundDurationP50();
+
+    /**
+     * @return The 99th percentile round duration.
+     */
+    long getRoundDurationP99();
+
+    /**
+     * @return Every metric by name.
+     */
+    Map<String, Long> getSnapshot();
+
+    /**
+     * Clears every counter and histogram.
+     */
+    void reset();
+}
@@ -0,0 +1,338 @@
+package edu.guilford;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Reconstructs games from a binary game log, one turn at a time.
+ * The log records every deal, draw and discard, so the replayer knows every
+ * hand, every player's lives and the whole discard pile after each turn,
+ * without running the game engine again. Seeded games can also be played
+ * again from scratch with {@code new Game(getNumPlayers(), listener, getSeed())}.
+ * Hands and piles are tracked as card masks, so a game dealt from a shoe of
+ * several decks, where a card can be in play more than once, is only
+ * reconstructed approximately.
+ * <p>
+ * Typical use:
+ * <pre>
+ * GameReplayer replayer = new GameReplayer(GameLogReader.open(path));
+ * while (replayer.nextGame()) {
+ *     while (replayer.nextTurn()) {
+ *         // inspect replayer.getHandMask(replayer.getSeat()), ...
+ *     }
+ * }
+ * </pre>
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameLogReader
+ * @see GameLogWriter
+ */
+public class GameReplayer {
+
+    /**
+     * The number of lives every player starts with.
+     */
+    private static final int STARTING_LIVES = 3;
+
+    /**
+     * The log being replayed.
+     */
+    private GameLogReader reader;
+
+    /**
+     * A record that has been read but belongs to the next turn or game.
+     */
+    private GameLogRecord pending;
+
+    /**
+     * The hand of every seat, as card masks.
+     */
+    private long[] hands = new long[0];
+
+    /**
+     * The lives of every seat.
+     */
+    private int[] lives = new int[0];
+
+    /**
+     * The discard pile, rebuilt from the deals and the discards.
+     */
+    private CardStack discardPile = new CardStack();
+
+    /**
+     * The number of rounds dealt so far in the current game.
+     */
+    private int round;
+
+    /**
+     * The number of turns played so far in the current game.
+     */
+    private int turn;
+
+    /**
+     * The seat that played the last turn.
+     */
+    private int seat;
+
+    /**
+     * The seat of the winner once the game is over, or -1.
+     */
+    private int winner;
+
+    /**
+     * Constructs a replayer for the games in a log.
+     *
+     * @param reader The log to replay.
+     */
+    public GameReplayer(GameLogReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Moves to the start of the next game in the log, skipping whatever is left
+     * of the current one.
+     *
+     * @return true if there is another game, false at the end of the log.
+     * @throws IOException if the log cannot be read.
+     */
+    public boolean nextGame() throws IOException {
+        GameLogRecord record = pending != null ? pending : reader.next();
+        pending = null;
+        while (record != null && record != GameLogRecord.GAME_START) {
+            record = reader.next();
+        }
+        if (record == null) {
+            return false;
+        }
+        int numPlayers = reader.getNumPlayers();
+        hands = new long[numPlayers];
+        lives = new int[numPlayers];
+        Arrays.fill(lives, STARTING_LIVES);
+        discardPile.clear();
+        round = 0;
+        turn = 0;
+        seat = -1;
+        winner = -1;
+        return true;
+    }
+
+    /**
+     * Replays the next turn of the current game: the deal if the turn starts a
+     * round, the draw, the discard, and whatever the turn led to, such as a
+     * knock or lost lives.
+     *
+     * @return true if a turn was replayed, false once the game is over.
+     * @throws IOException if the log cannot be read.
+     */
+    public boolean nextTurn() throws IOException {
+        boolean discarded = false;
+        while (true) {
+            GameLogRecord record = pending != null ? pending : reader.next();
+            pending = null;
+            if (record == null) {
+                return discarded;
+            }
+            if (record == GameLogRecord.GAME_START
+                    || (discarded && (record == GameLogRecord.DEAL || record == GameLogRecord.DRAW_STOCK
+                            || record == GameLogRecord.DRAW_DISCARD || record == GameLogRecord.REFILL
+                            || record == GameLogRecord.RECYCLE))) {
+                // The record starts the next turn or game
+                pending = record;
+                return discarded;
+            }
+            apply(record);
+            if (record == GameLogRecord.DISCARD_TO_PILE || record == GameLogRecord.DISCARD_TO_STOCK) {
+                discarded = true;
+                turn++;
+            } else if (record == GameLogRecord.GAME_END) {
+                return discarded;
+            }
+        }
+    }
+
+    /**
+     * Applies one record to the reconstructed game.
+     *
+     * @param record The record just read.
+     */
+    private void apply(GameLogRecord record) {
+        int card = reader.getCard();
+        switch (record) {
+            case DEAL:
+                round++;
+                for (int i = 0; i < hands.length; i++) {
+                    hands[i] = reader.getDealtHand(i);
+                }
+                discardPile.clear();
+                if (card >= 0) {
+                    discardPile.push(card);
+                }
+                break;
+            case REFILL:
+                discardPile.push(card);
+                break;
+            case RECYCLE:
+                // Everything but the top card went into the stock pile
+                int top = discardPile.pop();
+                discardPile.clear();
+                discardPile.push(top);
+                break;
+            case DRAW_STOCK:
+                seat = reader.getSeat();
+                if (card >= 0) {
+                    hands[seat] |= CardMask.bit(card);
+                }
+                break;
+            case DRAW_DISCARD:
+                seat = reader.getSeat();
+                discardPile.pop();
+                hands[seat] |= CardMask.bit(card);
+                break;
+            case DISCARD_TO_PILE:
+                hands[reader.getSeat()] &= ~CardMask.bit(card);
+                discardPile.push(card);
+                break;
+            case DISCARD_TO_STOCK:
+                hands[reader.getSeat()] &= ~CardMask.bit(card);
+                break;
+            case LIVES_LOST:
+                lives[reader.getSeat()] = Math.max(0, lives[reader.getSeat()] - reader.getLives());
+                break;
+            case GAME_END:
+                winner = reader.getSeat() < hands.length ? reader.getSeat() : -1;
+                break;
+            default: // KNOCK, THIRTY_ONE, TURN_LIMIT and ROUND_END change nothing that is tracked
+                break;
+        }
+    }
+
+    /**
+     * Gets the number of players in the current game.
+     *
+     * @return The number of players.
+     */
+    public int getNumPlayers() {
+        return hands.length;
+    }
+
+    /**
+     * Checks if the current game was started from a seed.
+     *
+     * @return true if getSeed() is the game's seed.
+     */
+    public boolean isSeeded() {
+        return reader.isSeeded();
+    }
+
+    /**
+     * Gets the seed of the current game.
+     *
+     * @return The seed, or 0 if the game was not seeded.
+     */
+    public long getSeed() {
+        return reader.getSeed();
+    }
+
+    /**
+     * Gets the seat that played the last turn.
+     *
+     * @return The seat, starting at 0, or -1 before the first turn.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Gets a seat's hand.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The cards in the hand, as a card mask.
+     */
+    public long getHandMask(int seat) {
+        return hands[seat];
+    }
+
+    /**
+     * Gets the value of a seat's hand.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The value of the hand's best suit.
+     */
+    public int getHandValue(int seat) {
+        return CardMask.score(hands[seat]);
+    }
+
+    /**
+     * Gets a seat's remaining lives.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The number of lives.
+     */
+    public int getLives(int seat) {
+        return lives[seat];
+    }
+
+    /**
+     * Gets the card on top of the discard pile.
+     *
+     * @return The card index, or -1 if the pile is empty.
+     */
+    public int getTopDiscard() {
+        return discardPile.peek();
+    }
+
+    /**
+     * Gets the number of cards in the discard pile.
+     *
+     * @return The size of the discard pile.
+     */
+    public int getDiscardPileSize() {
+        return discardPile.size();
+    }
+
+    /**
+     * Gets the cards that are neither in a hand nor in the discard pile, which
+     * are the cards in the stock pile.
+     *
+     * @return The stock pile's cards, as a card mask.
+     */
+    public long getStockMask() {
+        long seen = 0L;
+        for (long hand : hands) {
+            seen |= hand;
+        }
+        for (int i = 0; i < discardPile.size(); i++) {
+            seen |= CardMask.bit(discardPile.get(i));
+        }
+        return CardMask.FULL_DECK & ~seen;
+    }
+
+    /**
+     * Gets the number of rounds dealt so far in the current game.
+     *
+     * @return The round number.
+     */
+    public int getRound() {
+        return round;
+    }
+
+    /**
+     * Gets the number of turns played so far in the current game.
+     *
+     * @return The turn number.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Gets the winner of the current game.
+     *
+     * @return The winner's seat, or -1 if the game is not over or had no
+     *         winner.
+     */
+    public int getWinner() {
+        return winner;
+    }
+}
@@ -0,0 +1,227 @@
+package edu.guilford;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * The whole state of a {@link Game} between two turns, or while a turn waits
+ * for a decision, in a fixed size buffer.
+ * <p>
+ * A snapshot holds every player's lives and hand, the order of turns, both
+ * piles, the progress of the current round, the turn limit, and the state
+ * of the game's generator if it is a {@link XoroshiroRandom}. Its size
+ * depends only on the number of players and decks, so one snapshot can be
+ * filled and restored any number of times without allocating, and written
+ * to disk as it is to resume a game later. A {@link TableHost} in compact
+ * mode keeps its idle tables as snapshots.
+ * <p>
+ * Layout, big-endian: magic, number of players and number of decks (ints);
+ * a flags byte, which also holds the pending decision; seed and generator
+ * state (longs); turn limit (int) and its resolution (byte); players alive,
+ * turns played, next seat and winner (ints); for every seat its lives, hand
+ * size and four card bytes; the rotation of seats (ints, -1 past the
+ * players alive); then the discard pile and the stock pile, each as a size
+ * (int) followed by one byte per card of the shoe. Card bytes are card
+ * indices, 255 for no card.
+ * <p>
+ * Player names and strategies are not part of the snapshot; a game restored
+ * from it keeps its own. A snapshot is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Game#snapshot(GameSnapshot)
+ * @see Game#restore(GameSnapshot)
+ */
+public final class GameSnapshot {
+
+    /**
+     * The first four bytes of every snapshot.
+     */
+    static final int MAGIC = 0x33314753; // "31GS"
+
+    /**
+     * Flag set when the game was created from a seed.
+     */
+    static final int SEEDED = 1;
+
+    /**
+     * Flag set when a round is being played.
+     */
+    static final int IN_ROUND = 1 << 1;
+
+    /**
+     * Flag set when a player has been eliminated but is still in the
+     * rotation.
+     */
+    static final int ELIMINATED = 1 << 2;
+
+    /**
+     * Flag set when the game is over.
+     */
+    static final int OVER = 1 << 3;
+
+    /**
+     * Flag set when the generator state is held.
+     */
+    static final int RANDOM_STATE = 1 << 4;
+
+    /**
+     * The position of the pending decision in the flags byte, stored as its
+     * ordinal plus one, 0 for none.
+     */
+    static final int DECISION_SHIFT = 5;
+
+    /**
+     * The number of card bytes kept for every hand.
+     */
+    static final int HAND_CARDS = 4;
+
+    /**
+     * The byte written for a missing card.
+     */
+    static final int NO_CARD = 255;
+
+    /**
+     * The number of players in the game.
+     */
+    private final int numPlayers;
+
+    /**
+     * The number of standard decks in the game's shoe.
+     */
+    private final int decks;
+
+    /**
+     * The snapshot's bytes.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs an empty snapshot for games with the given number of
+     * players and decks.
+     *
+     * @param numPlayers The number of players.
+     * @param decks      The number of standard decks in the shoe.
+     */
+    public GameSnapshot(int numPlayers, int decks) {
+        this.numPlayers = numPlayers;
+        this.decks = decks;
+        this.buffer = ByteBuffer.allocate(size(numPlayers, decks));
+    }
+
+    /**
+     * Gets the size in bytes of a snapshot for the given number of players
+     * and decks.
+     *
+     * @param numPlayers The number of players.
+     * @param decks      The number of standard decks in the shoe.
+     * @return The snapshot size in bytes.
+     */
+    public static int size(int numPlayers, int decks) {
+        int header = 3 * Integer.BYTES + 1 + 3 * Long.BYTES + Integer.BYTES + 1 + 4 * Integer.BYTES;
+        int seats = numPlayers * (2 + HAND_CARDS + Integer.BYTES);
+        int piles = 2 * (Integer.BYTES + decks * CardMask.DECK_SIZE);
+        return header + seats + piles;
+    }
+
+    /**
+     * Gets the number of players the snapshot is for.
+     *
+     * @return The number of players.
+     */
+    public int getNumPlayers() {
+        return numPlayers;
+    }
+
+    /**
+     * Gets the number of decks the snapshot is for.
+     *
+     * @return The number of standard decks in the shoe.
+     */
+    public int getDecks() {
+        return decks;
+    }
+
+    /**
+     * Gets the size of the snapshot in bytes.
+     *
+     * @return The snapshot size.
+     */
+    public int size() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Checks if the snapshot has been filled from a game or read from a
+     * channel.
+     *
+     * @return true if the snapshot holds a game.
+     */
+    public boolean isFilled() {
+        return buffer.getInt(0) == MAGIC;
+    }
+
+    /**
+     * Gets the snapshot's buffer, rewound for a game to fill or read.
+     *
+     * @return The buffer.
+     */
+    ByteBuffer buffer() {
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Copies another snapshot of the same size into this one.
+     *
+     * @param other The snapshot to copy.
+     * @throws IllegalArgumentException if the snapshots are for different
+     *                                  games.
+     */
+    public void copyFrom(GameSnapshot other) {
+        if (other.numPlayers != numPlayers || other.decks != decks) {
+            throw new IllegalArgumentException("Snapshot is for " + other.numPlayers + " players and "
+                    + other.decks + " decks, not " + numPlayers + " and " + decks);
+        }
+        System.arraycopy(other.buffer.array(), 0, buffer.array(), 0, buffer.capacity());
+    }
+
+    /**
+     * Writes the snapshot to a channel.
+     *
+     * @param channel The channel to write to.
+     * @throws IOException if the channel cannot be written.
+     */
+    public void writeTo(WritableByteChannel channel) throws IOException {
+        ByteBuffer bytes = buffer();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a snapshot written by writeTo() from a channel, replacing the
+     * snapshot's contents.
+     *
+     * @param channel The channel to read from.
+     * @throws IOException if the channel cannot be read, ends early, or does
+     *                     not hold a snapshot for this number of players and
+     *                     decks.
+     */
+    public void readFrom(ReadableByteChannel channel) throws IOException {
+        ByteBuffer bytes = buffer();
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes) < 0) {
+                throw new EOFException("Game snapshot ends after " + bytes.position() + " bytes");
+            }
+        }
+        if (bytes.getInt(0) != MAGIC || bytes.getInt(Integer.BYTES) != numPlayers
+                || bytes.getInt(2 * Integer.BYTES) != decks) {
+            bytes.putInt(0, 0); // Leave the snapshot empty
+            throw new IOException("Not a game snapshot for " + numPlayers + " players and " + decks + " decks");
+        }
+    }
+}
@@ -1,11 +1,19 @@
 package edu.guilford;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 
 /**
  * Represents a hand of cards held by a player in the game.
  * A hand is a collection of cards that a player holds.
  * The hand class is used to keep track of the cards a player has.
+ * Alongside the list of cards, the hand keeps the same cards as a
+ * {@link CardMask} set, along with the total value and number of cards of
+ * every suit. These are updated as cards are added and removed, so the value
+ * of the hand is always ready to read.
+ * <p>
+ * A hand dealt from a shoe of several decks can hold two copies of the same
+ * card. The card mask then holds the card once; see {@link #hasDuplicates()}.
  * 
  * @author Miguel A. Nunez Palomares
  * @version 1.0
@@ -14,21 +22,60 @@ import java.util.ArrayList;
 
 public class Hand {
 
+    /**
+     * The suits, indexed by ordinal. Cached because Suit.values() copies its
+     * array on every call.
+     */
+    private static final Card.Suit[] SUITS = Card.Suit.values();
+
     /**
      * ArrayList of cards representing the hand.
      */
     private ArrayList<Card> hand;
 
+    /**
+     * The cards in the hand as a set of card indices.
+     */
+    private long mask;
+
+    /**
+     * The number of cards in the hand that are copies of another card in it.
+     */
+    private int duplicates;
+
+    /**
+     * The number of bits given to each suit in suitValues and suitCounts.
+     */
+    private static final int SUIT_FIELD = 16;
+
+    /**
+     * The total value of the cards of every suit, packed 16 bits per suit with
+     * the first suit lowest, so a hand keeps no arrays besides its card list.
+     */
+    private long suitValues;
+
+    /**
+     * The number of cards of every suit, packed like suitValues.
+     */
+    private long suitCounts;
+
+    /**
+     * The value of the best suit.
+     */
+    private int totalValue;
+
     /**
      * Constructor for Hand class.
      * Initializes the hand as an empty ArrayList of cards.
      */
     public Hand() {
-        hand = new ArrayList<Card>();
+        hand = new ArrayList<Card>(4); // Room for a hand and the card drawn
     }
 
     /**
      * Gets the list of cards in the hand.
+     * The list should only be read; use addCard and removeCard to change the
+     * hand so that its value stays up to date.
      * 
      * @return the list of cards in the hand
      */
@@ -43,6 +90,14 @@ public class Hand {
      */
     public void addCard(Card card) {
         hand.add(card);
+        if (CardMask.contains(mask, card.index())) {
+            duplicates++;
+        }
+        mask |= CardMask.bit(card.index());
+        int shift = CardMask.suit(card.index()) * SUIT_FIELD;
+        suitValues += (long) CardMask.value(card.index()) << shift;
+        suitCounts += 1L << shift;
+        totalValue = Math.max(totalValue, field(suitValues, shift)); // Adding a card can only raise its suit
     }
 
     /**
@@ -51,7 +106,17 @@ public class Hand {
      * @param card the card to remove
      */
     public void removeCard(Card card) {
-        hand.remove(card);
+        if (hand.remove(card)) {
+            if (duplicates > 0 && hand.contains(card)) {
+                duplicates--; // Another copy is still in the hand
+            } else {
+                mask &= ~CardMask.bit(card.index());
+            }
+            int shift = CardMask.suit(card.index()) * SUIT_FIELD;
+            suitValues -= (long) CardMask.value(card.index()) << shift;
+            suitCounts -= 1L << shift;
+            totalValue = bestSuitValue(suitValues);
+        }
     }
 
     /**
@@ -59,6 +124,21 @@ public class Hand {
      */
     public void reset() {
         hand.clear();
+        mask = 0L;
+        duplicates = 0;
+        suitValues = 0L;
+        suitCounts = 0L;
+        totalValue = 0;
+    }
+
+    /**
+     * Sorts the cards in the hand.
+     * 
+     * @param order the order to sort in, such as Card.BY_SUIT or Card.BY_RANK,
+     *              or null for the calling thread's Card.getSortOrder()
+     */
+    public void sort(Comparator<Card> order) {
+        hand.sort(order == null ? Card.getSortOrder() : order);
     }
 
     /**
@@ -81,64 +161,141 @@ public class Hand {
     }
 
     /**
-     * Calculates the total value of the hand based on the highest value suit.
+     * Gets the cards in the hand as a set of card indices.
+     * 
+     * @return the hand's card mask
+     * @see CardMask
+     */
+    public long getMask() {
+        return mask;
+    }
+
+    /**
+     * Checks if the hand holds two copies of the same card, which only happens
+     * with a shoe of several decks. The card mask of such a hand has fewer
+     * cards than the hand, so lookups by mask, such as the HandTable, do not
+     * apply to it.
+     * 
+     * @return true if some card is in the hand more than once
+     */
+    public boolean hasDuplicates() {
+        return duplicates > 0;
+    }
+
+    /**
+     * Gets the total value of the hand based on the highest value suit.
+     * The value is kept up to date by addCard and removeCard, so this is a
+     * single read.
      * 
      * @return the total value of the hand
      */
     public int getTotalValue() {
-        int maxValue = 0;
-        int[] values = new int[Card.Suit.values().length];
-        for (Card.Suit suit : Card.Suit.values()) {
-            values[suit.ordinal()] = 0;
-            for (Card card : hand) {
-                if (card.getSuit() == suit) {
-                    // add the value of the card to the value of the suit
-                    switch (card.getRank()) {
-                        case ACE:
-                            values[suit.ordinal()] += 11;
-                            break;
-                        case TWO:
-                            values[suit.ordinal()] += 2;
-                            break;
-                        case THREE:
-                            values[suit.ordinal()] += 3;
-                            break;
-                        case FOUR:
-                            values[suit.ordinal()] += 4;
-                            break;
-                        case FIVE:
-                            values[suit.ordinal()] += 5;
-                            break;
-                        case SIX:
-                            values[suit.ordinal()] += 6;
-                            break;
-                        case SEVEN:
-                            values[suit.ordinal()] += 7;
-                            break;
-                        case EIGHT:
-                            values[suit.ordinal()] += 8;
-                            break;
-                        case NINE:
-                            values[suit.ordinal()] += 9;
-                            break;
-                        case TEN:
-                        case JACK:
-                        case QUEEN:
-                        case KING:
-                            values[suit.ordinal()] += 10;
-                            break;
-                    }
-
-                }
+        return totalValue;
+    }
+
+    /**
+     * Gets the total value of the cards of one suit in the hand.
+     * 
+     * @param suit the suit
+     * @return the sum of the values of the cards of that suit
+     */
+    public int getSuitValue(Card.Suit suit) {
+        return field(suitValues, suit.ordinal() * SUIT_FIELD);
+    }
+
+    /**
+     * Gets the number of cards of one suit in the hand.
+     * 
+     * @param suit the suit
+     * @return the number of cards of that suit
+     */
+    public int getSuitCount(Card.Suit suit) {
+        return field(suitCounts, suit.ordinal() * SUIT_FIELD);
+    }
+
+    /**
+     * Gets the suit the hand holds the most cards of.
+     * Ties go to the suit declared first in {@link Card.Suit}, so CLUBS beats
+     * DIAMONDS, which beats HEARTS, which beats SPADES. The suit counts are
+     * kept up to date by addCard and removeCard, so nothing is allocated.
+     * 
+     * @return the preferred suit, or null if the hand is empty
+     */
+    public Card.Suit getPreferredSuit() {
+        int best = 0;
+        int bestCount = field(suitCounts, 0);
+        for (int suit = 1; suit < CardMask.SUITS; suit++) {
+            int count = field(suitCounts, suit * SUIT_FIELD);
+            if (count > bestCount) { // Strictly more, so the earlier suit keeps a tie
+                best = suit;
+                bestCount = count;
             }
         }
-        maxValue = values[0];
-        for (int value : values) {
-            if (value > maxValue) {
-                maxValue = value;
+        return bestCount == 0 ? null : SUITS[best];
+    }
+
+    /**
+     * Calculates what the hand would be worth if one of its cards were swapped
+     * for another, without changing the hand.
+     * 
+     * @param out the card that would leave the hand
+     * @param in  the card that would take its place
+     * @return the total value of the hand after the swap
+     * @throws IllegalArgumentException if out is not in the hand
+     */
+    public int getValueAfterSwap(Card out, Card in) {
+        if (!CardMask.contains(mask, out.index())) {
+            throw new IllegalArgumentException(out + " is not in the hand");
+        }
+        long swapped = suitValues - ((long) CardMask.value(out.index()) << (CardMask.suit(out.index()) * SUIT_FIELD))
+                + ((long) CardMask.value(in.index()) << (CardMask.suit(in.index()) * SUIT_FIELD));
+        return bestSuitValue(swapped);
+    }
+
+    /**
+     * Finds the card whose removal leaves the most valuable hand, from the
+     * suit values alone, so it works for any hand, including hands with
+     * duplicate cards. Ties go to the card with the lowest value, then to the
+     * card with the lowest index, as in the HandTable.
+     * 
+     * @return the card to discard, or null if the hand is empty
+     */
+    public Card getBestDiscard() {
+        Card best = null;
+        int bestValue = -1;
+        for (Card card : hand) {
+            int value = CardMask.value(card.index());
+            int remaining = bestSuitValue(suitValues - ((long) value << (CardMask.suit(card.index()) * SUIT_FIELD)));
+            if (best == null || remaining > bestValue
+                    || (remaining == bestValue && (value < CardMask.value(best.index())
+                            || (value == CardMask.value(best.index()) && card.index() < best.index())))) {
+                best = card;
+                bestValue = remaining;
             }
         }
-        return maxValue;
+        return best;
+    }
+
+    /**
+     * Finds the highest suit value in a set of packed suit values.
+     * 
+     * @param values the suit values, packed like suitValues
+     * @return the value of the best suit
+     */
+    private static int bestSuitValue(long values) {
+        return Math.max(Math.max(field(values, 0), field(values, SUIT_FIELD)),
+                Math.max(field(values, 2 * SUIT_FIELD), field(values, 3 * SUIT_FIELD)));
+    }
+
+    /**
+     * Reads one suit's field from packed suit values or counts.
+     * 
+     * @param packed the packed fields
+     * @param shift  the suit ordinal times SUIT_FIELD
+     * @return the suit's value or count
+     */
+    private static int field(long packed, int shift) {
+        return (int) (packed >>> shift) & 0xFFFF;
     }
 
     /**
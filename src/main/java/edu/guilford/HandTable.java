@@ -0,0 +1,202 @@
+package edu.guilford;
+
+/**
+ * Precomputed scores for every 3 and 4 card hand.
+ * <p>
+ * There are only C(52,3) = 22,100 three card hands and C(52,4) = 270,725
+ * four card hands, so every one of them is scored once and stored in a byte
+ * array. A hand is mapped to its slot with the combinatorial number system:
+ * the sorted card indices c0 &lt; c1 &lt; c2 (&lt; c3) go to
+ * C(c0,1) + C(c1,2) + C(c2,3) (+ C(c3,4)), a perfect hash with no gaps and no
+ * collisions. For four card hands the table also stores which card to
+ * discard to keep the best three card hand.
+ * <p>
+ * The tables are built the first time they are used, which takes a few
+ * milliseconds, and use about 560 KB of memory.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see CardMask
+ */
+public final class HandTable {
+
+    /**
+     * Binomial coefficients C(n, k) for n up to 52 and k up to 4.
+     */
+    private static final int[][] CHOOSE = new int[5][CardMask.DECK_SIZE + 1];
+
+    static {
+        for (int n = 0; n <= CardMask.DECK_SIZE; n++) {
+            CHOOSE[0][n] = 1;
+            for (int k = 1; k < CHOOSE.length; k++) {
+                CHOOSE[k][n] = n == 0 ? 0 : CHOOSE[k][n - 1] + CHOOSE[k - 1][n - 1];
+            }
+        }
+    }
+
+    /**
+     * This class only has static methods.
+     */
+    private HandTable() {
+    }
+
+    /**
+     * Holds the tables, so that they are only built when first used.
+     */
+    private static class Tables {
+
+        /**
+         * Score of every three card hand.
+         */
+        static final byte[] SCORES3 = new byte[CHOOSE[3][CardMask.DECK_SIZE]];
+
+        /**
+         * Score of every four card hand.
+         */
+        static final byte[] SCORES4 = new byte[CHOOSE[4][CardMask.DECK_SIZE]];
+
+        /**
+         * Card index to discard from every four card hand.
+         */
+        static final byte[] DISCARDS4 = new byte[CHOOSE[4][CardMask.DECK_SIZE]];
+
+        static {
+            for (int c2 = 2; c2 < CardMask.DECK_SIZE; c2++) {
+                for (int c1 = 1; c1 < c2; c1++) {
+                    for (int c0 = 0; c0 < c1; c0++) {
+                        long mask = CardMask.bit(c0) | CardMask.bit(c1) | CardMask.bit(c2);
+                        SCORES3[rank3(c0, c1, c2)] = (byte) CardMask.score(mask);
+                    }
+                }
+            }
+            int[] cards = new int[4];
+            for (cards[3] = 3; cards[3] < CardMask.DECK_SIZE; cards[3]++) {
+                for (cards[2] = 2; cards[2] < cards[3]; cards[2]++) {
+                    for (cards[1] = 1; cards[1] < cards[2]; cards[1]++) {
+                        for (cards[0] = 0; cards[0] < cards[1]; cards[0]++) {
+                            long mask = 0L;
+                            for (int card : cards) {
+                                mask |= CardMask.bit(card);
+                            }
+                            int slot = rank4(cards[0], cards[1], cards[2], cards[3]);
+                            SCORES4[slot] = (byte) CardMask.score(mask);
+                            DISCARDS4[slot] = (byte) chooseDiscard(mask, cards);
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Finds the card whose removal leaves the highest scoring three card
+         * hand. Ties go to the card with the lowest value, then to the card
+         * with the lowest index.
+         *
+         * @param mask  The four card hand.
+         * @param cards The four card indices, in increasing order.
+         * @return The index of the card to discard.
+         */
+        private static int chooseDiscard(long mask, int[] cards) {
+            int best = cards[0];
+            int bestScore = -1;
+            for (int card : cards) {
+                int score = CardMask.score(mask & ~CardMask.bit(card));
+                if (score > bestScore
+                        || (score == bestScore && CardMask.value(card) < CardMask.value(best))) {
+                    best = card;
+                    bestScore = score;
+                }
+            }
+            return best;
+        }
+    }
+
+    /**
+     * Gets the table slot of a sorted three card hand.
+     *
+     * @param c0 The lowest card index.
+     * @param c1 The middle card index.
+     * @param c2 The highest card index.
+     * @return The slot, from 0 to 22,099.
+     */
+    private static int rank3(int c0, int c1, int c2) {
+        return c0 + CHOOSE[2][c1] + CHOOSE[3][c2];
+    }
+
+    /**
+     * Gets the table slot of a sorted four card hand.
+     *
+     * @param c0 The lowest card index.
+     * @param c1 The second card index.
+     * @param c2 The third card index.
+     * @param c3 The highest card index.
+     * @return The slot, from 0 to 270,724.
+     */
+    private static int rank4(int c0, int c1, int c2, int c3) {
+        return c0 + CHOOSE[2][c1] + CHOOSE[3][c2] + CHOOSE[4][c3];
+    }
+
+    /**
+     * Gets the table slot of a four card hand.
+     *
+     * @param mask A set of exactly four cards.
+     * @return The slot, from 0 to 270,724.
+     */
+    private static int slot4(long mask) {
+        int c0 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c1 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        int c2 = Long.numberOfTrailingZeros(mask);
+        mask &= mask - 1;
+        return rank4(c0, c1, c2, Long.numberOfTrailingZeros(mask));
+    }
+
+    /**
+     * Scores a hand with a single table lookup. Hands of any size other than
+     * three or four cards are scored with {@link CardMask#score(long)}.
+     *
+     * @param mask The set of cards in the hand.
+     * @return The value of the hand's best suit.
+     */
+    public static int score(long mask) {
+        int size = Long.bitCount(mask);
+        if (size == 3) {
+            int c0 = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            int c1 = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+            return Tables.SCORES3[rank3(c0, c1, Long.numberOfTrailingZeros(mask))];
+        } else if (size == 4) {
+            return Tables.SCORES4[slot4(mask)];
+        }
+        return CardMask.score(mask);
+    }
+
+    /**
+     * Gets the card to discard from a four card hand to keep the highest
+     * scoring three cards. Among equally good discards the lowest valued card
+     * is chosen.
+     *
+     * @param mask A set of exactly four cards.
+     * @return The index of the card to discard.
+     * @throws IllegalArgumentException if the set does not hold four cards.
+     */
+    public static int bestDiscard(long mask) {
+        if (Long.bitCount(mask) != 4) {
+            throw new IllegalArgumentException("A discard is chosen from exactly 4 cards");
+        }
+        return Tables.DISCARDS4[slot4(mask)];
+    }
+
+    /**
+     * Gets the highest scoring three cards of a four card hand.
+     *
+     * @param mask A set of exactly four cards.
+     * @return The three cards to keep.
+     * @throws IllegalArgumentException if the set does not hold four cards.
+     */
+    public static long bestThree(long mask) {
+        return mask & ~CardMask.bit(bestDiscard(mask));
+    }
+}
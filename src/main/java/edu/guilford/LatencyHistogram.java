@@ -0,0 +1,179 @@
+package edu.guilford;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock-free histogram of non-negative values, such as latencies in
+ * nanoseconds, with a fixed relative precision in the style of HdrHistogram.
+ * <p>
+ * Values below 32 get a bucket each. Above that, every power of two is split
+ * into 32 equal buckets, so a value is never recorded more than about 3% away
+ * from its true size, from nanoseconds up to centuries, in under 2,000
+ * buckets. Recording is an index calculation and one atomic increment, so any
+ * number of threads can record at once.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameMetrics
+ */
+public class LatencyHistogram {
+
+    /**
+     * The number of bits of each value kept exactly.
+     */
+    private static final int SUB_BITS = 5;
+
+    /**
+     * The number of buckets every power of two is split into.
+     */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /**
+     * The number of buckets needed for every non-negative long.
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) << SUB_BITS;
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number of values recorded.
+     */
+    private LongAdder count = new LongAdder();
+
+    /**
+     * The sum of the values recorded.
+     */
+    private LongAdder sum = new LongAdder();
+
+    /**
+     * The largest value recorded.
+     */
+    private AtomicLong max = new AtomicLong();
+
+    /**
+     * Records a value. Negative values are recorded as 0.
+     *
+     * @param value The value, such as a latency in nanoseconds.
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucket(value));
+        count.increment();
+        sum.add(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Gets the value below which the given share of the recorded values fall,
+     * to within the histogram's precision.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The highest value of the bucket holding the percentile, or 0 if
+     *         nothing was recorded.
+     */
+    public long getPercentile(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += counts.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValue(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * Clears every recorded value.
+     * Values recorded while the reset is running may or may not be kept.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * Gets the bucket of a value.
+     *
+     * @param value A non-negative value.
+     * @return The bucket index.
+     */
+    static int bucket(long value) {
+        int msb = 63 - Long.numberOfLeadingZeros(value | 1);
+        if (msb < SUB_BITS) {
+            return (int) value;
+        }
+        int shift = msb - SUB_BITS;
+        // value >>> shift is from 32 to 63: the top SUB_BITS + 1 bits of the value
+        return ((shift + 1) << SUB_BITS) + (int) ((value >>> shift) - SUB_BUCKETS);
+    }
+
+    /**
+     * Gets the highest value that falls in a bucket.
+     *
+     * @param bucket The bucket index.
+     * @return The highest value of the bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long lowest = (long) (SUB_BUCKETS + (bucket & (SUB_BUCKETS - 1))) << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %d, mean %.1f, p50 %d, p99 %d, max %d",
+                getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+    }
+}
@@ -0,0 +1,231 @@
+package edu.guilford;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An in-process stand-in for the people at a {@link TableHost}'s tables.
+ * The host's requests are turned into prompts and queued by table, so a
+ * test or a driver can wait for the next prompt on its own thread, answer
+ * it through the host, and wait for the table to close, just as a remote
+ * person would.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TableHost
+ */
+public class LocalTableClient implements TableClient {
+
+    /**
+     * What a table asked for or told the client.
+     */
+    public static final class Prompt {
+
+        /**
+         * The table's id.
+         */
+        private final long table;
+
+        /**
+         * The decision to make, or null if the table has closed.
+         */
+        private final Game.Decision decision;
+
+        /**
+         * The seat of the player who has to decide, or of the winner once the
+         * table has closed, or -1.
+         */
+        private final int seat;
+
+        /**
+         * The player's hand when the decision was asked for.
+         */
+        private final List<Card> hand;
+
+        /**
+         * The top discard when the decision was asked for.
+         */
+        private final Card topDiscard;
+
+        /**
+         * The reason a move was rejected or the table failed, or null.
+         */
+        private final String rejection;
+
+        /**
+         * Whether the table has closed.
+         */
+        private final boolean closed;
+
+        /**
+         * Constructs a prompt.
+         *
+         * @param table      The table's id.
+         * @param decision   The decision to make, or null.
+         * @param seat       The player's seat, or -1.
+         * @param hand       The player's hand.
+         * @param topDiscard The top discard.
+         * @param rejection  The reason a move was rejected or the table
+         *                   failed, or null.
+         * @param closed     Whether the table has closed.
+         */
+        Prompt(long table, Game.Decision decision, int seat, List<Card> hand, Card topDiscard, String rejection,
+                boolean closed) {
+            this.table = table;
+            this.decision = decision;
+            this.seat = seat;
+            this.hand = hand;
+            this.topDiscard = topDiscard;
+            this.rejection = rejection;
+            this.closed = closed;
+        }
+
+        /**
+         * Gets the table's id.
+         *
+         * @return The table.
+         */
+        public long getTable() {
+            return table;
+        }
+
+        /**
+         * Gets the decision the table is waiting for.
+         *
+         * @return The decision, or null if the prompt is not a decision.
+         */
+        public Game.Decision getDecision() {
+            return decision;
+        }
+
+        /**
+         * Gets the seat of the player who has to decide, or of the winner if
+         * the table has closed.
+         *
+         * @return The seat, or -1 if there is none.
+         */
+        public int getSeat() {
+            return seat;
+        }
+
+        /**
+         * Gets the player's hand when the decision was asked for.
+         *
+         * @return The cards in the hand, unmodifiable.
+         */
+        public List<Card> getHand() {
+            return hand;
+        }
+
+        /**
+         * Gets the top discard when the decision was asked for.
+         *
+         * @return The top discard, or null.
+         */
+        public Card getTopDiscard() {
+            return topDiscard;
+        }
+
+        /**
+         * Checks if the prompt reports a rejected move.
+         *
+         * @return true if the last move was rejected.
+         */
+        public boolean isRejection() {
+            return rejection != null && !closed;
+        }
+
+        /**
+         * Gets the reason the last move was rejected, or the table failed.
+         *
+         * @return The reason, or null.
+         */
+        public String getRejection() {
+            return rejection;
+        }
+
+        /**
+         * Checks if the prompt reports that the table has closed.
+         *
+         * @return true if the table has closed.
+         */
+        public boolean isClosed() {
+            return closed;
+        }
+
+        /**
+         * Returns a short description of the prompt.
+         *
+         * @return The prompt as text.
+         */
+        @Override
+        public String toString() {
+            if (isRejection()) {
+                return "Table " + table + " rejected a move: " + rejection;
+            }
+            if (isClosed()) {
+                return "Table " + table
+                        + (rejection != null ? " failed: " + rejection : " closed, winner seat " + seat);
+            }
+            return "Table " + table + " seat " + seat + " to " + decision + " with " + hand
+                    + ", top discard " + topDiscard;
+        }
+    }
+
+    /**
+     * The prompts waiting to be taken, by table.
+     */
+    private Map<Long, BlockingQueue<Prompt>> prompts = new ConcurrentHashMap<>();
+
+    @Override
+    public void decisionNeeded(long table, int seat, List<Card> hand, Card topDiscard, Game.Decision decision) {
+        queue(table).add(new Prompt(table, decision, seat, hand, topDiscard, null, false));
+    }
+
+    @Override
+    public void moveRejected(long table, String reason) {
+        queue(table).add(new Prompt(table, null, -1, List.of(), null, reason, false));
+    }
+
+    @Override
+    public void tableClosed(long table, int winnerSeat) {
+        queue(table).add(new Prompt(table, null, winnerSeat, List.of(), null, null, true));
+    }
+
+    @Override
+    public void tableFailed(long table, RuntimeException e) {
+        queue(table).add(new Prompt(table, null, -1, List.of(), null, e.toString(), true));
+    }
+
+    /**
+     * Waits for a table's next prompt.
+     *
+     * @param table   The table's id.
+     * @param timeout How long to wait.
+     * @param unit    The unit of the timeout.
+     * @return The prompt, or null if none came in time.
+     * @throws InterruptedException if the thread is interrupted while
+     *                              waiting.
+     */
+    public Prompt next(long table, long timeout, TimeUnit unit) throws InterruptedException {
+        Prompt prompt = queue(table).poll(timeout, unit);
+        if (prompt != null && prompt.isClosed()) {
+            prompts.remove(table);
+        }
+        return prompt;
+    }
+
+    /**
+     * Gets a table's prompt queue, creating it on first use.
+     *
+     * @param table The table's id.
+     * @return The queue.
+     */
+    private BlockingQueue<Prompt> queue(long table) {
+        return prompts.computeIfAbsent(table, id -> new LinkedBlockingQueue<>());
+    }
+}
@@ -0,0 +1,405 @@
+package edu.guilford;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strategy that looks ahead instead of following fixed rules.
+ * <p>
+ * Every three card hand is valued by its expected score after one more draw,
+ * averaged over every card the player has not seen; the card on top of the
+ * discard pile is in sight, so it is not counted. The discard is the card
+ * whose removal leaves the most valuable three cards, and the top discard is
+ * taken when the hand it leads to is worth at least as much as the average
+ * hand after drawing from the stock pile.
+ * <p>
+ * Knocking is decided by rollouts. Each rollout deals the opponents random
+ * hands from the unseen cards, improves them by a couple of greedy draws, and
+ * compares the lives the player expects to lose by knocking now with the
+ * lives it expects to lose by playing one more lap first, during which any
+ * opponent may reach 31. The player knocks when knocking now is no worse.
+ * <p>
+ * Evaluations depend only on the hand and the visible card, so they are kept
+ * in a {@link TranspositionCache} and shared by every later decision. Every
+ * decision has a time budget: a stock pile average that runs out of time
+ * finishes with plain scores, and rollouts stop when the budget is spent.
+ * <p>
+ * Every card is assumed to be unique, as in a single deck. Hands holding two
+ * copies of a card, which only a shoe of several decks deals, are left to
+ * the {@link DefaultStrategy}.
+ * <p>
+ * The strategy keeps a cache and a generator, so one instance must not be
+ * shared by games running on different threads.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see DefaultStrategy
+ * @see TranspositionCache
+ */
+public class LookaheadStrategy implements Strategy {
+
+    /**
+     * The time budget of a decision unless set otherwise: 1 ms.
+     */
+    public static final long DEFAULT_BUDGET_NANOS = 1_000_000L;
+
+    /**
+     * The number of cached evaluations unless set otherwise.
+     */
+    public static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    /**
+     * The most rollouts a knock decision plays.
+     */
+    private static final int MAX_ROLLOUTS = 1000;
+
+    /**
+     * The number of greedy draws given to every opponent's random hand before
+     * a rollout compares hands.
+     */
+    private static final int OPPONENT_DRAWS = 2;
+
+    /**
+     * The most opponents the rollouts can play against: every opponent is
+     * dealt 3 cards, makes the greedy draws and draws once more in the extra
+     * lap, and the player draws once, all from the cards outside the hand.
+     */
+    public static final int MAX_OPPONENTS = (CardMask.DECK_SIZE - 3 - 1) / (3 + OPPONENT_DRAWS + 1);
+
+    /**
+     * Cache key tag of a three card hand's value.
+     */
+    private static final long HAND_VALUE = 0L;
+
+    /**
+     * Cache key tag of the average value after drawing from the stock pile.
+     */
+    private static final long STOCK_VALUE = 1L << 60;
+
+    /**
+     * Cache key tag of a knock decision.
+     */
+    private static final long KNOCK_VALUE = 2L << 60;
+
+    /**
+     * Position in a cache key of the card in sight, above the hand's 52 bits.
+     */
+    private static final int VISIBLE_SHIFT = CardMask.DECK_SIZE;
+
+    /**
+     * The number of opponents the rollouts play against.
+     */
+    private int opponents;
+
+    /**
+     * The time budget of every decision, in nanoseconds.
+     */
+    private long budgetNanos;
+
+    /**
+     * The evaluations of hands seen so far.
+     */
+    private TranspositionCache cache;
+
+    /**
+     * The generator the rollouts draw from.
+     */
+    private SplittableRandom rand;
+
+    /**
+     * The unseen cards of the current knock decision, shuffled by the rollouts.
+     */
+    private int[] unseen = new int[CardMask.DECK_SIZE];
+
+    /**
+     * Constructs a strategy for 2 player games with the default budget and
+     * cache size.
+     */
+    public LookaheadStrategy() {
+        this(1, DEFAULT_BUDGET_NANOS, DEFAULT_CACHE_SIZE, new SplittableRandom());
+    }
+
+    /**
+     * Constructs a strategy for 2 player games with the default budget and
+     * cache size whose rollouts are seeded.
+     *
+     * @param seed The seed of the rollouts.
+     */
+    public LookaheadStrategy(long seed) {
+        this(1, DEFAULT_BUDGET_NANOS, DEFAULT_CACHE_SIZE, new SplittableRandom(seed));
+    }
+
+    /**
+     * Constructs a strategy.
+     *
+     * @param opponents   The number of opponents the rollouts play against.
+     * @param budgetNanos The time budget of every decision, in nanoseconds.
+     * @param cacheSize   The number of evaluations to keep.
+     * @param rand        The generator the rollouts draw from.
+     * @throws IllegalArgumentException if opponents is less than 1 or more
+     *                                  than MAX_OPPONENTS, or the budget is
+     *                                  not positive.
+     */
+    public LookaheadStrategy(int opponents, long budgetNanos, int cacheSize, SplittableRandom rand) {
+        if (opponents < 1) {
+            throw new IllegalArgumentException("A game has at least 1 opponent");
+        }
+        if (opponents > MAX_OPPONENTS) {
+            throw new IllegalArgumentException("Rollouts can play against at most " + MAX_OPPONENTS
+                    + " opponents from one deck");
+        }
+        if (budgetNanos <= 0) {
+            throw new IllegalArgumentException("A decision needs a positive time budget");
+        }
+        this.opponents = opponents;
+        this.budgetNanos = budgetNanos;
+        this.cache = new TranspositionCache(cacheSize);
+        this.rand = rand;
+    }
+
+    /**
+     * Gets the cache of evaluations, for example to check its hit rate.
+     *
+     * @return The cache.
+     */
+    public TranspositionCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Takes the top discard if the best hand it leads to is worth at least the
+     * average best hand after drawing from the stock pile.
+     *
+     * @param hand       The player's 3 card hand.
+     * @param topDiscard The top card of the discard pile.
+     * @return true to take the top discard.
+     */
+    @Override
+    public boolean shouldTakeDiscard(Hand hand, Card topDiscard) {
+        long mask = hand.getMask();
+        if (hand.hasDuplicates() || CardMask.contains(mask, topDiscard.index())) {
+            return DefaultStrategy.INSTANCE.shouldTakeDiscard(hand, topDiscard);
+        }
+        int top = topDiscard.index();
+        double takeValue = bestValue(mask | CardMask.bit(top), top);
+        return takeValue >= stockValue(mask, top, System.nanoTime() + budgetNanos);
+    }
+
+    /**
+     * Discards the card whose removal leaves the most valuable three cards.
+     * The discard is in sight on the discard pile or at the back of the stock
+     * pile afterwards, so it is not counted among the next draws. Among
+     * equally valuable discards, the one the HandTable picks for the highest
+     * score now is preferred.
+     *
+     * @param hand The player's 4 card hand.
+     * @return The card to discard.
+     */
+    @Override
+    public Card chooseDiscard(Hand hand) {
+        if (hand.hasDuplicates()) {
+            return DefaultStrategy.INSTANCE.chooseDiscard(hand);
+        }
+        long mask = hand.getMask();
+        int discard = HandTable.bestDiscard(mask);
+        double best = handValue(mask & ~CardMask.bit(discard), discard);
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            int card = Long.numberOfTrailingZeros(rest);
+            double value = handValue(mask & ~CardMask.bit(card), card);
+            if (value > best) {
+                best = value;
+                discard = card;
+            }
+        }
+        for (Card card : hand.getHand()) {
+            if (card.index() == discard) {
+                return card;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Knocks if the rollouts expect knocking now to lose no more lives than
+     * knocking after one more lap.
+     *
+     * @param hand The player's 3 card hand.
+     * @return true to knock.
+     */
+    @Override
+    public boolean shouldKnock(Hand hand) {
+        if (hand.hasDuplicates()) {
+            return DefaultStrategy.INSTANCE.shouldKnock(hand);
+        }
+        long mask = hand.getMask();
+        long key = KNOCK_VALUE | mask;
+        double advantage = cache.get(key);
+        if (Double.isNaN(advantage)) {
+            advantage = rollouts(mask, System.nanoTime() + budgetNanos);
+            cache.put(key, advantage);
+        }
+        return advantage >= 0.0;
+    }
+
+    /**
+     * Gets the value of a three card hand: its expected score after one more
+     * draw from the cards outside it other than the card in sight, keeping
+     * the best three of four.
+     *
+     * @param mask    The three card hand.
+     * @param visible The card index of the card in sight, which may be in the
+     *                hand.
+     * @return The expected score.
+     */
+    private double handValue(long mask, int visible) {
+        long key = HAND_VALUE | mask | ((long) visible << VISIBLE_SHIFT);
+        double value = cache.get(key);
+        if (Double.isNaN(value)) {
+            long total = 0;
+            long rest = CardMask.FULL_DECK & ~mask & ~CardMask.bit(visible);
+            int count = Long.bitCount(rest);
+            for (; rest != 0; rest &= rest - 1) {
+                total += HandTable.score(HandTable.bestThree(mask | (rest & -rest)));
+            }
+            value = (double) total / count;
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Gets the value of the most valuable three cards of a four card hand.
+     *
+     * @param mask    The four card hand.
+     * @param visible The card index of the card in sight.
+     * @return The best value.
+     */
+    private double bestValue(long mask, int visible) {
+        double best = 0.0;
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            best = Math.max(best, handValue(mask & ~(rest & -rest), visible));
+        }
+        return best;
+    }
+
+    /**
+     * Gets the average value of the best hand after drawing from the stock
+     * pile, over every card outside the hand other than the top discard. If
+     * the deadline passes, the remaining cards are valued by their plain best
+     * score.
+     *
+     * @param mask       The three card hand.
+     * @param topDiscard The card index of the top discard.
+     * @param deadline   The System.nanoTime() by which to finish.
+     * @return The expected value.
+     */
+    private double stockValue(long mask, int topDiscard, long deadline) {
+        long key = STOCK_VALUE | mask | ((long) topDiscard << VISIBLE_SHIFT);
+        double value = cache.get(key);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        double total = 0.0;
+        boolean complete = true;
+        int checked = 0;
+        long stock = CardMask.FULL_DECK & ~mask & ~CardMask.bit(topDiscard);
+        for (long rest = stock; rest != 0; rest &= rest - 1) {
+            long drawn = mask | (rest & -rest);
+            if (complete && (++checked & 7) == 0 && System.nanoTime() > deadline) {
+                complete = false;
+            }
+            total += complete ? bestValue(drawn, topDiscard) : HandTable.score(HandTable.bestThree(drawn));
+        }
+        value = total / Long.bitCount(stock);
+        if (complete) { // A rushed average is used once but not remembered
+            cache.put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Plays rollouts of a knock decision until the deadline or the rollout
+     * limit.
+     *
+     * @param mask     The player's three card hand.
+     * @param deadline The System.nanoTime() by which to finish.
+     * @return The average lives lost by waiting a lap minus the average lives
+     *         lost by knocking now; positive when knocking now is better.
+     */
+    private double rollouts(long mask, long deadline) {
+        int count = 0;
+        for (long rest = CardMask.FULL_DECK & ~mask; rest != 0; rest &= rest - 1) {
+            unseen[count++] = Long.numberOfTrailingZeros(rest);
+        }
+        int score = CardMask.score(mask);
+        long[] hands = new long[opponents];
+        long lostNow = 0;
+        long lostLater = 0;
+        int played = 0;
+        while (played < MAX_ROLLOUTS && ((played & 15) != 0 || System.nanoTime() <= deadline)) {
+            int next = 0;
+            // Deal and develop the opponents' hands from a shuffled unseen pile
+            for (int i = 0; i < opponents; i++) {
+                long opponent = 0L;
+                for (int j = 0; j < 3; j++) {
+                    opponent |= CardMask.bit(draw(next++, count));
+                }
+                for (int j = 0; j < OPPONENT_DRAWS; j++) {
+                    opponent = HandTable.bestThree(opponent | CardMask.bit(draw(next++, count)));
+                }
+                hands[i] = opponent;
+            }
+            lostNow += livesLost(score, hands);
+
+            // One more lap: the player draws first, then every opponent
+            long later = HandTable.bestThree(mask | CardMask.bit(draw(next++, count)));
+            int laterScore = CardMask.score(later);
+            if (laterScore != 31) {
+                boolean opponentThirtyOne = false;
+                for (int i = 0; i < opponents && !opponentThirtyOne; i++) {
+                    hands[i] = HandTable.bestThree(hands[i] | CardMask.bit(draw(next++, count)));
+                    opponentThirtyOne = CardMask.score(hands[i]) == 31;
+                }
+                lostLater += opponentThirtyOne ? 1 : livesLost(laterScore, hands);
+            }
+            played++;
+        }
+        return (double) (lostLater - lostNow) / played;
+    }
+
+    /**
+     * Draws a card for a rollout with one step of a Fisher-Yates shuffle of the
+     * unseen cards.
+     *
+     * @param position The number of cards already drawn in this rollout.
+     * @param count    The number of unseen cards.
+     * @return The card index drawn.
+     */
+    private int draw(int position, int count) {
+        int pick = position + rand.nextInt(count - position);
+        int card = unseen[pick];
+        unseen[pick] = unseen[position];
+        unseen[position] = card;
+        return card;
+    }
+
+    /**
+     * Gets the lives a knocker with the given score loses against the given
+     * hands: 2 if it is alone with the lowest score, 1 if it shares the lowest
+     * score, 0 otherwise.
+     *
+     * @param score The knocker's score.
+     * @param hands The opponents' hands.
+     * @return The lives lost.
+     */
+    private static int livesLost(int score, long[] hands) {
+        boolean tied = false;
+        for (long hand : hands) {
+            int opponent = CardMask.score(hand);
+            if (opponent < score) {
+                return 0;
+            }
+            tied |= opponent == score;
+        }
+        return tied ? 1 : 2;
+    }
+}
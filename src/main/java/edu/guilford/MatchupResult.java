@@ -0,0 +1,213 @@
+package edu.guilford;
+
+/**
+ * The outcome of a head-to-head matchup between two strategies, with a
+ * Wilson score interval for the first strategy's win rate.
+ * Games without a winner are counted as draws and left out of the win rate.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see StrategyHarness
+ */
+public class MatchupResult {
+
+    /**
+     * The name of the first strategy.
+     */
+    private String first;
+
+    /**
+     * The name of the second strategy.
+     */
+    private String second;
+
+    /**
+     * The number of games won by the first strategy.
+     */
+    private long firstWins;
+
+    /**
+     * The number of games won by the second strategy.
+     */
+    private long secondWins;
+
+    /**
+     * The number of games nobody won.
+     */
+    private long draws;
+
+    /**
+     * The z score the confidence interval is computed with.
+     */
+    private double z;
+
+    /**
+     * Constructs an empty result for a matchup.
+     *
+     * @param first  The name of the first strategy.
+     * @param second The name of the second strategy.
+     * @param z      The z score of the confidence interval.
+     */
+    public MatchupResult(String first, String second, double z) {
+        this.first = first;
+        this.second = second;
+        this.z = z;
+    }
+
+    /**
+     * Records the result of one game.
+     *
+     * @param winner 0 if the first strategy won, 1 if the second won, or -1 if
+     *               nobody won.
+     */
+    void recordGame(int winner) {
+        if (winner == 0) {
+            firstWins++;
+        } else if (winner == 1) {
+            secondWins++;
+        } else {
+            draws++;
+        }
+    }
+
+    /**
+     * Adds the games of another result for the same matchup to this one.
+     *
+     * @param other The result to add.
+     * @return This result, for chaining.
+     */
+    public MatchupResult merge(MatchupResult other) {
+        firstWins += other.firstWins;
+        secondWins += other.secondWins;
+        draws += other.draws;
+        return this;
+    }
+
+    /**
+     * Gets the name of the first strategy.
+     *
+     * @return The first strategy's name.
+     */
+    public String getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the name of the second strategy.
+     *
+     * @return The second strategy's name.
+     */
+    public String getSecond() {
+        return second;
+    }
+
+    /**
+     * Gets the number of games won by the first strategy.
+     *
+     * @return The first strategy's wins.
+     */
+    public long getFirstWins() {
+        return firstWins;
+    }
+
+    /**
+     * Gets the number of games won by the second strategy.
+     *
+     * @return The second strategy's wins.
+     */
+    public long getSecondWins() {
+        return secondWins;
+    }
+
+    /**
+     * Gets the number of games nobody won.
+     *
+     * @return The number of draws.
+     */
+    public long getDraws() {
+        return draws;
+    }
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return firstWins + secondWins + draws;
+    }
+
+    /**
+     * Gets the first strategy's share of the games that had a winner.
+     *
+     * @return The win rate, from 0 to 1, or 0.5 if no game had a winner.
+     */
+    public double getWinRate() {
+        long decided = firstWins + secondWins;
+        return decided == 0 ? 0.5 : (double) firstWins / decided;
+    }
+
+    /**
+     * Gets the lower end of the Wilson score interval for the win rate.
+     *
+     * @return The lower bound, from 0 to 1.
+     */
+    public double getLowerBound() {
+        return wilsonCenter() - wilsonHalfWidth();
+    }
+
+    /**
+     * Gets the upper end of the Wilson score interval for the win rate.
+     *
+     * @return The upper bound, from 0 to 1.
+     */
+    public double getUpperBound() {
+        return wilsonCenter() + wilsonHalfWidth();
+    }
+
+    /**
+     * Checks if the confidence interval excludes an even matchup, meaning one
+     * strategy is better than the other.
+     *
+     * @return true if the interval lies entirely above or below 0.5.
+     */
+    public boolean isSignificant() {
+        return firstWins + secondWins > 0 && (getLowerBound() > 0.5 || getUpperBound() < 0.5);
+    }
+
+    /**
+     * Gets the centre of the Wilson score interval.
+     *
+     * @return The centre.
+     */
+    private double wilsonCenter() {
+        long n = firstWins + secondWins;
+        if (n == 0) {
+            return 0.5;
+        }
+        double z2 = z * z;
+        return (getWinRate() + z2 / (2.0 * n)) / (1.0 + z2 / n);
+    }
+
+    /**
+     * Gets half the width of the Wilson score interval.
+     *
+     * @return The half width.
+     */
+    private double wilsonHalfWidth() {
+        long n = firstWins + secondWins;
+        if (n == 0) {
+            return 0.5;
+        }
+        double p = getWinRate();
+        double z2 = z * z;
+        return z / (1.0 + z2 / n) * Math.sqrt(p * (1.0 - p) / n + z2 / (4.0 * n * n));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s vs %s: %d games, %d-%d-%d, win rate %.4f [%.4f, %.4f]%s",
+                first, second, getGames(), firstWins, secondWins, draws,
+                getWinRate(), getLowerBound(), getUpperBound(), isSignificant() ? " *" : "");
+    }
+}
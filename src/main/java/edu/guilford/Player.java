@@ -35,6 +35,16 @@ public class Player {
      */
     private Card.Suit preferredSuit; // Suit player is focusing on
 
+    /**
+     * The strategy that makes the player's decisions.
+     */
+    private Strategy strategy;
+
+    /**
+     * The player's seat in its game, or -1 if it is not seated.
+     */
+    private int seat = -1;
+
     /**
      * Constructs a Player with the given name.
      * Initializes the hand, lives, knocking status, and preferred suit.
@@ -47,6 +57,7 @@ public class Player {
         this.lives = 3; // Players start with 3 lives
         this.canKnock = false;
         this.preferredSuit = null; // Will be determined based on initial hand
+        this.strategy = DefaultStrategy.INSTANCE;
     }
 
     /**
@@ -76,6 +87,34 @@ public class Player {
         }
     }
 
+    /**
+     * Sets the player's lives, as when a game is restored from a snapshot.
+     * 
+     * @param lives The number of lives.
+     */
+    void setLives(int lives) {
+        this.lives = lives;
+    }
+
+    /**
+     * Gets the player's seat in its game, which is its position in
+     * {@link Game#getPlayers()}.
+     * 
+     * @return The seat, starting at 0, or -1 if the player is not seated.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Seats the player in a game.
+     * 
+     * @param seat The seat, starting at 0.
+     */
+    void setSeat(int seat) {
+        this.seat = seat;
+    }
+
     /**
      * Checks if the player is still in the game.
      * 
@@ -129,6 +168,24 @@ public class Player {
         this.preferredSuit = suit;
     }
 
+    /**
+     * Gets the strategy that makes the player's decisions.
+     * 
+     * @return The player's strategy.
+     */
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Sets the strategy that makes the player's decisions.
+     * 
+     * @param strategy The strategy to play with.
+     */
+    public void setStrategy(Strategy strategy) {
+        this.strategy = strategy;
+    }
+
     /**
      * Returns a string representation of the player, including their name, lives,
      * and the cards in their hand.
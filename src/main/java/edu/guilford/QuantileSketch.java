@@ -0,0 +1,370 @@
+package edu.guilford;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Estimates the quantiles of a stream of values in a small, bounded amount of
+ * memory, with the KLL sketch of Karnin, Lang and Liberty.
+ * <p>
+ * The sketch keeps a stack of levels. New values go into level 0; whenever
+ * the sketch is full, the first level over its capacity is sorted and every
+ * other value, starting at random from the first or second, moves up a level,
+ * where each value stands for twice as many. Capacities shrink by a factor of
+ * 2/3 going down the stack, so the sketch holds about 3k values however long
+ * the stream is, and a quantile is off by about 1.7/k of the count in rank:
+ * under 1% with the default k of 200.
+ * <p>
+ * Sketches with the same k are combined with {@link #merge(QuantileSketch)},
+ * so workers can sketch their own share of a stream. Compactions draw from a
+ * generator with a fixed seed, so the same values recorded and merged in the
+ * same order always give the same estimates. A sketch is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameAnalytics
+ */
+public class QuantileSketch {
+
+    /**
+     * The capacity of the top level unless set otherwise.
+     */
+    public static final int DEFAULT_K = 200;
+
+    /**
+     * The quantiles reported by the exports.
+     */
+    static final double[] REPORTED = { 0.5, 0.9, 0.99 };
+
+    /**
+     * The factor capacities shrink by from one level to the one below.
+     */
+    private static final double SHRINK = 2.0 / 3.0;
+
+    /**
+     * The smallest capacity of any level.
+     */
+    private static final int MIN_CAPACITY = 2;
+
+    /**
+     * The capacity of the top level.
+     */
+    private final int k;
+
+    /**
+     * The values kept at every level. A value at level h stands for 2^h
+     * values of the stream.
+     */
+    private double[][] levels = new double[1][];
+
+    /**
+     * The number of values kept at every level.
+     */
+    private int[] sizes = new int[1];
+
+    /**
+     * The number of levels in use.
+     */
+    private int numLevels = 1;
+
+    /**
+     * The number of values kept over all levels.
+     */
+    private int retained;
+
+    /**
+     * The number of values kept when the sketch has to compact.
+     */
+    private int maxRetained;
+
+    /**
+     * The number of values recorded.
+     */
+    private long count;
+
+    /**
+     * The smallest value recorded.
+     */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * The largest value recorded.
+     */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Picks which half of a level moves up.
+     */
+    private final XoroshiroRandom rand = new XoroshiroRandom(0x4B4C4CL);
+
+    /**
+     * Constructs an empty sketch with the default k.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * Constructs an empty sketch.
+     *
+     * @param k The capacity of the top level; larger values give more
+     *          accurate quantiles for more memory.
+     */
+    public QuantileSketch(int k) {
+        if (k < MIN_CAPACITY * 4) {
+            throw new IllegalArgumentException("k must be at least " + MIN_CAPACITY * 4);
+        }
+        this.k = k;
+        levels[0] = new double[k];
+        maxRetained = capacity(0);
+    }
+
+    /**
+     * Records a value. NaN is ignored.
+     *
+     * @param value The value.
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        append(0, value);
+        if (retained >= maxRetained) {
+            compress();
+        }
+    }
+
+    /**
+     * Adds the values recorded by another sketch with the same k to this
+     * one.
+     *
+     * @param other The sketch to add.
+     * @return This sketch, for chaining.
+     * @throws IllegalArgumentException if the sketches have different k.
+     */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other.k != k) {
+            throw new IllegalArgumentException("Cannot merge sketches with k " + other.k + " and " + k);
+        }
+        while (numLevels < other.numLevels) {
+            grow();
+        }
+        for (int h = 0; h < other.numLevels; h++) {
+            for (int i = 0; i < other.sizes[h]; i++) {
+                append(h, other.levels[h][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        compress();
+        return this;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the number of values the sketch is holding.
+     *
+     * @return The number of values kept.
+     */
+    public int getRetained() {
+        return retained;
+    }
+
+    /**
+     * Gets the smallest value recorded.
+     *
+     * @return The minimum, or 0 if nothing was recorded.
+     */
+    public double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public double getMax() {
+        return count == 0 ? 0.0 : max;
+    }
+
+    /**
+     * Estimates the value below which the given share of the recorded values
+     * fall.
+     *
+     * @param quantile The quantile, from 0 to 1.
+     * @return The estimated value, or 0 if nothing was recorded.
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) {
+            return 0.0;
+        }
+        if (quantile <= 0.0) {
+            return min;
+        }
+        if (quantile >= 1.0) {
+            return max;
+        }
+        for (int h = 0; h < numLevels; h++) {
+            Arrays.sort(levels[h], 0, sizes[h]);
+        }
+        // Walk the levels in value order, adding up the weights
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        int[] next = new int[numLevels];
+        long seen = 0;
+        while (true) {
+            int lowest = -1;
+            for (int h = 0; h < numLevels; h++) {
+                if (next[h] < sizes[h] && (lowest < 0 || levels[h][next[h]] < levels[lowest][next[lowest]])) {
+                    lowest = h;
+                }
+            }
+            if (lowest < 0) {
+                return max;
+            }
+            seen += 1L << lowest;
+            if (seen >= rank) {
+                return levels[lowest][next[lowest]];
+            }
+            next[lowest]++;
+        }
+    }
+
+    /**
+     * Adds a value to a level, growing its array if needed.
+     *
+     * @param level The level.
+     * @param value The value.
+     */
+    private void append(int level, double value) {
+        double[] values = levels[level];
+        if (sizes[level] == values.length) {
+            values = Arrays.copyOf(values, Math.max(MIN_CAPACITY, values.length * 2));
+            levels[level] = values;
+        }
+        values[sizes[level]++] = value;
+        retained++;
+    }
+
+    /**
+     * Compacts levels until the sketch holds fewer values than it may.
+     */
+    private void compress() {
+        while (retained >= maxRetained) {
+            for (int h = 0; h < numLevels; h++) {
+                if (sizes[h] >= capacity(h)) {
+                    if (h + 1 == numLevels) {
+                        grow();
+                    }
+                    compact(h);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sorts a level and moves every other value up to the next level. With an
+     * odd number of values, the smallest stays behind.
+     *
+     * @param level The level to compact.
+     */
+    private void compact(int level) {
+        double[] values = levels[level];
+        int size = sizes[level];
+        Arrays.sort(values, 0, size);
+        int kept = size & 1;
+        sizes[level] = kept;
+        retained -= size - kept;
+        for (int i = kept + (rand.nextBoolean() ? 1 : 0); i < size; i += 2) {
+            append(level + 1, values[i]);
+        }
+    }
+
+    /**
+     * Adds a level on top of the stack, which shrinks the capacity of every
+     * level below.
+     */
+    private void grow() {
+        numLevels++;
+        if (numLevels > levels.length) {
+            levels = Arrays.copyOf(levels, numLevels);
+            sizes = Arrays.copyOf(sizes, numLevels);
+        }
+        levels[numLevels - 1] = new double[MIN_CAPACITY];
+        maxRetained = 0;
+        for (int h = 0; h < numLevels; h++) {
+            maxRetained += capacity(h);
+        }
+    }
+
+    /**
+     * Gets the number of values a level holds before it is compacted.
+     *
+     * @param level The level.
+     * @return The level's capacity.
+     */
+    private int capacity(int level) {
+        int depth = numLevels - level - 1;
+        return Math.max(MIN_CAPACITY, (int) Math.ceil(k * Math.pow(SHRINK, depth)));
+    }
+
+    /**
+     * Appends the reported quantiles as CSV rows of metric, quantile and
+     * value.
+     *
+     * @param out    Where to append the rows.
+     * @param metric The name of the metric.
+     * @throws IOException if the rows cannot be appended.
+     */
+    void appendCsv(Appendable out, String metric) throws IOException {
+        for (double quantile : REPORTED) {
+            GameAnalytics.csvRow(out, metric, label(quantile), getQuantile(quantile));
+        }
+    }
+
+    /**
+     * Appends the reported quantiles as members of a JSON object, without the
+     * braces.
+     *
+     * @param out Where to append the members.
+     * @throws IOException if the members cannot be appended.
+     */
+    void appendJson(Appendable out) throws IOException {
+        for (int i = 0; i < REPORTED.length; i++) {
+            if (i > 0) {
+                out.append(',');
+            }
+            out.append('"').append(label(REPORTED[i])).append("\":")
+                    .append(Double.toString(getQuantile(REPORTED[i])));
+        }
+    }
+
+    /**
+     * Gets the label of a quantile, such as p50 or p99.
+     *
+     * @param quantile The quantile, from 0 to 1.
+     * @return The label.
+     */
+    private static String label(double quantile) {
+        return "p" + Math.round(quantile * 100);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %d, p50 %.1f, p90 %.1f, p99 %.1f, max %.1f",
+                count, getQuantile(0.5), getQuantile(0.9), getQuantile(0.99), getMax());
+    }
+}
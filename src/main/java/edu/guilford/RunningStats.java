@@ -0,0 +1,169 @@
+package edu.guilford;
+
+import java.io.IOException;
+
+/**
+ * The count, mean, variance and range of a stream of values, kept in
+ * constant memory with Welford's method.
+ * <p>
+ * Welford's update avoids the cancellation of the textbook sum of squares,
+ * so the variance stays accurate over billions of values. Statistics from
+ * different workers are combined with {@link #merge(RunningStats)}, which
+ * gives the same result, to rounding, as recording every value in one place.
+ * A RunningStats is not thread safe; give every worker its own.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameAnalytics
+ */
+public class RunningStats {
+
+    /**
+     * The number of values recorded.
+     */
+    private long count;
+
+    /**
+     * The mean of the values recorded.
+     */
+    private double mean;
+
+    /**
+     * The sum of the squared differences from the mean.
+     */
+    private double m2;
+
+    /**
+     * The smallest value recorded.
+     */
+    private double min = Double.POSITIVE_INFINITY;
+
+    /**
+     * The largest value recorded.
+     */
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Records a value.
+     *
+     * @param value The value.
+     */
+    public void record(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Adds the values recorded by another RunningStats to this one.
+     *
+     * @param other The statistics to add.
+     * @return This RunningStats, for chaining.
+     */
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * other.count / total;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    /**
+     * Gets the number of values recorded.
+     *
+     * @return The count.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the mean of the values recorded.
+     *
+     * @return The mean, or 0 if nothing was recorded.
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Gets the sample variance of the values recorded.
+     *
+     * @return The variance, or 0 if fewer than two values were recorded.
+     */
+    public double getVariance() {
+        return count < 2 ? 0.0 : m2 / (count - 1);
+    }
+
+    /**
+     * Gets the sample standard deviation of the values recorded.
+     *
+     * @return The standard deviation, or 0 if fewer than two values were
+     *         recorded.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Gets the smallest value recorded.
+     *
+     * @return The minimum, or 0 if nothing was recorded.
+     */
+    public double getMin() {
+        return count == 0 ? 0.0 : min;
+    }
+
+    /**
+     * Gets the largest value recorded.
+     *
+     * @return The maximum, or 0 if nothing was recorded.
+     */
+    public double getMax() {
+        return count == 0 ? 0.0 : max;
+    }
+
+    /**
+     * Appends the statistics as CSV rows of metric, statistic and value.
+     *
+     * @param out    Where to append the rows.
+     * @param metric The name of the metric.
+     * @throws IOException if the rows cannot be appended.
+     */
+    void appendCsv(Appendable out, String metric) throws IOException {
+        GameAnalytics.csvRow(out, metric, "count", count);
+        GameAnalytics.csvRow(out, metric, "mean", getMean());
+        GameAnalytics.csvRow(out, metric, "stddev", getStandardDeviation());
+        GameAnalytics.csvRow(out, metric, "min", getMin());
+        GameAnalytics.csvRow(out, metric, "max", getMax());
+    }
+
+    /**
+     * Appends the statistics as members of a JSON object, without the braces.
+     *
+     * @param out Where to append the members.
+     * @throws IOException if the members cannot be appended.
+     */
+    void appendJson(Appendable out) throws IOException {
+        out.append("\"count\":").append(Long.toString(count))
+                .append(",\"mean\":").append(Double.toString(getMean()))
+                .append(",\"stddev\":").append(Double.toString(getStandardDeviation()))
+                .append(",\"min\":").append(Double.toString(getMin()))
+                .append(",\"max\":").append(Double.toString(getMax()));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("count %d, mean %.3f, stddev %.3f, min %.1f, max %.1f",
+                count, getMean(), getStandardDeviation(), getMin(), getMax());
+    }
+}
@@ -0,0 +1,204 @@
+package edu.guilford;
+
+/**
+ * Aggregate results of a batch of simulated games: how often each seat won,
+ * how many rounds were played, and how the rounds ended.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Simulator
+ */
+public class SimulationResult {
+
+    /**
+     * Number of games won by each seat, indexed by seat (0 is "Player 1").
+     */
+    private long[] wins;
+
+    /**
+     * Number of games played.
+     */
+    private long games;
+
+    /**
+     * Number of rounds played over all games.
+     */
+    private long rounds;
+
+    /**
+     * Number of rounds that ended with a knock.
+     */
+    private long knockEndings;
+
+    /**
+     * Number of rounds that ended because a player reached 31.
+     */
+    private long thirtyOneEndings;
+
+    /**
+     * Number of rounds that ended because the turn limit was reached.
+     */
+    private long turnLimitEndings;
+
+    /**
+     * Constructs an empty result for games with the given number of players.
+     *
+     * @param numPlayers The number of players in each game.
+     */
+    public SimulationResult(int numPlayers) {
+        wins = new long[numPlayers];
+    }
+
+    /**
+     * Records one finished game.
+     *
+     * @param winnerSeat The seat of the winner, or -1 if there was no winner.
+     */
+    void recordGame(int winnerSeat) {
+        games++;
+        if (winnerSeat >= 0) {
+            wins[winnerSeat]++;
+        }
+    }
+
+    /**
+     * Records one finished round.
+     *
+     * @param ender     The player who knocked or reached 31, or null if the
+     *                  turn limit ended the round.
+     * @param thirtyOne true if the round ended with 31.
+     */
+    void recordRound(Player ender, boolean thirtyOne) {
+        rounds++;
+        if (thirtyOne) {
+            thirtyOneEndings++;
+        } else if (ender == null) {
+            turnLimitEndings++;
+        } else {
+            knockEndings++;
+        }
+    }
+
+    /**
+     * Adds the counts of another result into this one.
+     *
+     * @param other The result to add. Must be for the same number of players.
+     */
+    public void merge(SimulationResult other) {
+        if (other.wins.length != wins.length) {
+            throw new IllegalArgumentException("Cannot merge results for different player counts");
+        }
+        for (int i = 0; i < wins.length; i++) {
+            wins[i] += other.wins[i];
+        }
+        games += other.games;
+        rounds += other.rounds;
+        knockEndings += other.knockEndings;
+        thirtyOneEndings += other.thirtyOneEndings;
+        turnLimitEndings += other.turnLimitEndings;
+    }
+
+    /**
+     * Gets the number of players in each game.
+     *
+     * @return The number of seats.
+     */
+    public int getNumPlayers() {
+        return wins.length;
+    }
+
+    /**
+     * Gets the number of games played.
+     *
+     * @return The number of games.
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Gets the number of games won by a seat.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The number of wins for that seat.
+     */
+    public long getWins(int seat) {
+        return wins[seat];
+    }
+
+    /**
+     * Gets the fraction of games won by a seat.
+     *
+     * @param seat The seat, starting at 0.
+     * @return The win rate for that seat, between 0 and 1.
+     */
+    public double getWinRate(int seat) {
+        return games == 0 ? 0.0 : (double) wins[seat] / games;
+    }
+
+    /**
+     * Gets the number of rounds played over all games.
+     *
+     * @return The number of rounds.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Gets the average number of rounds per game.
+     *
+     * @return The average number of rounds.
+     */
+    public double getAverageRounds() {
+        return games == 0 ? 0.0 : (double) rounds / games;
+    }
+
+    /**
+     * Gets the number of rounds that ended with a knock.
+     *
+     * @return The number of knock endings.
+     */
+    public long getKnockEndings() {
+        return knockEndings;
+    }
+
+    /**
+     * Gets the number of rounds that ended because a player reached 31.
+     *
+     * @return The number of 31 endings.
+     */
+    public long getThirtyOneEndings() {
+        return thirtyOneEndings;
+    }
+
+    /**
+     * Gets the number of rounds that ended because the turn limit was
+     * reached.
+     *
+     * @return The number of turn limit endings.
+     */
+    public long getTurnLimitEndings() {
+        return turnLimitEndings;
+    }
+
+    /**
+     * Returns a summary of the results, one line per statistic.
+     *
+     * @return A string representation of the results.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Games played: ").append(games).append("\n");
+        for (int i = 0; i < wins.length; i++) {
+            sb.append("Player ").append(i + 1).append(" win rate: ")
+                    .append(String.format("%.4f", getWinRate(i))).append("\n");
+        }
+        sb.append("Average rounds per game: ").append(String.format("%.2f", getAverageRounds())).append("\n");
+        sb.append("Rounds ended by knock: ").append(knockEndings).append("\n");
+        sb.append("Rounds ended by 31: ").append(thirtyOneEndings).append("\n");
+        sb.append("Rounds ended by turn limit: ").append(turnLimitEndings).append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,127 @@
+package edu.guilford;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Plays batches of headless games and collects aggregate results.
+ * Games are played without any narration, so a batch runs as fast as the
+ * rules engine allows.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Game
+ * @see SimulationResult
+ * @see GameAnalytics
+ */
+public class Simulator {
+
+    /**
+     * The number of players in each simulated game.
+     */
+    private int numPlayers;
+
+    /**
+     * Constructs a Simulator for games with the given number of players.
+     *
+     * @param numPlayers The number of players in each game.
+     */
+    public Simulator(int numPlayers) {
+        if (numPlayers < 2) {
+            throw new IllegalArgumentException("A game needs at least 2 players");
+        }
+        this.numPlayers = numPlayers;
+    }
+
+    /**
+     * Plays the given number of games and returns their aggregate results.
+     *
+     * @param games The number of games to play.
+     * @return The results of all games played.
+     */
+    public SimulationResult run(long games) {
+        return run(games, new SplittableRandom());
+    }
+
+    /**
+     * Plays the given number of games, all drawing their randomness from one
+     * generator, and returns their aggregate results. The same generator state
+     * always produces the same results.
+     *
+     * @param games The number of games to play.
+     * @param rand  The random number generator shared by the games.
+     * @return The results of all games played.
+     */
+    public SimulationResult run(long games, RandomGenerator rand) {
+        return run(games, rand, GameListener.NONE);
+    }
+
+    /**
+     * Plays the given number of games, all drawing their randomness from one
+     * generator, and returns their aggregate results. Every event is also
+     * passed on to a listener, such as a {@link TurnDatasetWriter} exporting
+     * the games as they are played.
+     *
+     * @param games    The number of games to play.
+     * @param rand     The random number generator shared by the games.
+     * @param listener The listener told about every game.
+     * @return The results of all games played.
+     */
+    public SimulationResult run(long games, RandomGenerator rand, GameListener listener) {
+        SimulationResult result = new SimulationResult(numPlayers);
+        GameListener collector = new ResultCollector(result);
+        if (listener != GameListener.NONE) {
+            collector = new TeeGameListener(collector, listener);
+        }
+        for (long i = 0; i < games; i++) {
+            Game game = new Game(numPlayers, collector, rand);
+            game.play();
+            Player winner = game.getWinner();
+            result.recordGame(winner == null ? -1 : winner.getSeat());
+        }
+        return result;
+    }
+
+    /**
+     * Plays the given number of games, all drawing their randomness from one
+     * generator, and aggregates their events into streaming statistics.
+     * Memory use does not depend on the number of games.
+     *
+     * @param games The number of games to play.
+     * @param rand  The random number generator shared by the games.
+     * @return The statistics of all games played.
+     */
+    public GameAnalytics analyze(long games, RandomGenerator rand) {
+        GameAnalytics analytics = new GameAnalytics();
+        for (long i = 0; i < games; i++) {
+            new Game(numPlayers, analytics, rand).play();
+        }
+        return analytics;
+    }
+
+    /**
+     * Listener that counts round endings into a SimulationResult.
+     */
+    private static class ResultCollector implements GameListener {
+
+        /**
+         * The result being filled in.
+         */
+        private SimulationResult result;
+
+        /**
+         * Constructs a collector filling in the given result.
+         *
+         * @param result The result to record rounds into.
+         */
+        ResultCollector(SimulationResult result) {
+            this.result = result;
+        }
+
+        @Override
+        public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+            result.recordRound(ender, thirtyOne);
+        }
+    }
+}
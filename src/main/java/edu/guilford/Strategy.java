@@ -0,0 +1,47 @@
+package edu.guilford;
+
+/**
+ * The decisions a player makes during a turn of Thirty-One.
+ * The game asks the player's strategy what to do and carries out the answer;
+ * the rules themselves, such as where a discard ends up and when knocking is
+ * allowed, stay with the game.
+ * <p>
+ * A strategy may be shared by several players of one game. Strategies that
+ * keep state between decisions should not be shared between games running
+ * on different threads.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see DefaultStrategy
+ * @see Player#setStrategy(Strategy)
+ */
+public interface Strategy {
+
+    /**
+     * Decides whether to take the top card of the discard pile instead of
+     * drawing from the stock pile.
+     *
+     * @param hand       The player's 3 card hand.
+     * @param topDiscard The card on top of the discard pile.
+     * @return true to take the top discard, false to draw from the stock pile.
+     */
+    boolean shouldTakeDiscard(Hand hand, Card topDiscard);
+
+    /**
+     * Chooses the card to discard after drawing.
+     *
+     * @param hand The player's 4 card hand.
+     * @return A card from the hand.
+     */
+    Card chooseDiscard(Hand hand);
+
+    /**
+     * Decides whether to knock after discarding. Only asked once every player
+     * has had a turn in the round, and only when the hand is worth at least
+     * {@link Game#KNOCK_MINIMUM}: the game does not let weaker hands knock.
+     *
+     * @param hand The player's 3 card hand.
+     * @return true to knock.
+     */
+    boolean shouldKnock(Hand hand);
+}
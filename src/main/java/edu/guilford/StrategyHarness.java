@@ -0,0 +1,289 @@
+package edu.guilford;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Compares strategies by playing round-robin matchups of 2 player games.
+ * Every pair of strategies plays batches of games in parallel on a
+ * ForkJoinPool, with the seats swapped every game so neither strategy gets
+ * the advantage of playing first. After every batch the Wilson interval of
+ * the win rate is checked, and the matchup stops as soon as the interval
+ * excludes 0.5 or the game limit is reached. A clear difference is found in
+ * a few thousand games; only close matchups run to the limit.
+ * <p>
+ * Because the interval is looked at after every batch, the default z score
+ * is 3 rather than the usual 1.96, which keeps the chance of stopping on a
+ * lucky streak low.
+ * <p>
+ * Every shard gets its own strategies from the suppliers, so strategies that
+ * keep state are never shared between threads. Generators are split from a
+ * master seed in a fixed order, so results depend only on the seed and the
+ * settings, not on the number of threads.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Strategy
+ * @see MatchupResult
+ */
+public class StrategyHarness {
+
+    /**
+     * The z score of the confidence interval unless set otherwise.
+     */
+    public static final double DEFAULT_Z = 3.0;
+
+    /**
+     * The names of the strategies.
+     */
+    private List<String> names = new ArrayList<>();
+
+    /**
+     * The suppliers of the strategies, in the same order as the names.
+     */
+    private List<Supplier<Strategy>> suppliers = new ArrayList<>();
+
+    /**
+     * The number of shards every batch is divided into.
+     */
+    private int shards;
+
+    /**
+     * The pool the shards run on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * The number of games in every batch.
+     */
+    private long batchGames = 2000;
+
+    /**
+     * The most games a matchup plays before giving up on a significant result.
+     */
+    private long maxGames = 1_000_000;
+
+    /**
+     * The z score of the confidence interval.
+     */
+    private double z = DEFAULT_Z;
+
+    /**
+     * Constructs a harness that runs one shard per available processor on the
+     * common ForkJoinPool.
+     */
+    public StrategyHarness() {
+        this(Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a harness with the given number of shards running on the given
+     * pool.
+     *
+     * @param shards The number of shards every batch is divided into.
+     * @param pool   The pool to run the shards on.
+     */
+    public StrategyHarness(int shards, ForkJoinPool pool) {
+        if (shards < 1) {
+            throw new IllegalArgumentException("A harness needs at least 1 shard");
+        }
+        this.shards = shards;
+        this.pool = pool;
+    }
+
+    /**
+     * Adds a strategy to the round robin.
+     *
+     * @param name     The name the strategy is reported under.
+     * @param supplier Creates the strategy; called once per shard and batch.
+     * @return This harness, for chaining.
+     */
+    public StrategyHarness add(String name, Supplier<Strategy> supplier) {
+        names.add(name);
+        suppliers.add(supplier);
+        return this;
+    }
+
+    /**
+     * Sets the number of games played between significance checks.
+     *
+     * @param batchGames The number of games in every batch.
+     * @return This harness, for chaining.
+     */
+    public StrategyHarness setBatchGames(long batchGames) {
+        if (batchGames < 1) {
+            throw new IllegalArgumentException("A batch needs at least 1 game");
+        }
+        this.batchGames = batchGames;
+        return this;
+    }
+
+    /**
+     * Sets the most games a matchup plays.
+     *
+     * @param maxGames The game limit of every matchup.
+     * @return This harness, for chaining.
+     */
+    public StrategyHarness setMaxGames(long maxGames) {
+        this.maxGames = maxGames;
+        return this;
+    }
+
+    /**
+     * Sets the z score of the confidence interval.
+     *
+     * @param z The z score, such as 1.96 for a single look at 95%.
+     * @return This harness, for chaining.
+     */
+    public StrategyHarness setZ(double z) {
+        this.z = z;
+        return this;
+    }
+
+    /**
+     * Plays every pair of strategies against each other.
+     *
+     * @param seed The master seed all generators are split from.
+     * @return One result per pair, in the order the strategies were added.
+     */
+    public List<MatchupResult> run(long seed) {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<MatchupResult> results = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            for (int j = i + 1; j < names.size(); j++) {
+                results.add(runMatchup(i, j, master.split()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Plays batches of games between two strategies until the result is
+     * significant or the game limit is reached.
+     *
+     * @param first  The index of the first strategy.
+     * @param second The index of the second strategy.
+     * @param master The generator the batches are split from.
+     * @return The result of the matchup.
+     */
+    private MatchupResult runMatchup(int first, int second, SplittableRandom master) {
+        MatchupResult result = new MatchupResult(names.get(first), names.get(second), z);
+        while (result.getGames() < maxGames && !result.isSignificant()) {
+            long games = Math.min(batchGames, maxGames - result.getGames());
+            SplittableRandom[] randoms = new SplittableRandom[shards];
+            long[] shardGames = new long[shards];
+            for (int i = 0; i < shards; i++) {
+                randoms[i] = master.split();
+                shardGames[i] = games / shards + (i < games % shards ? 1 : 0);
+            }
+            result.merge(pool.invoke(new BatchTask(first, second, randoms, shardGames, 0, shards)));
+        }
+        return result;
+    }
+
+    /**
+     * Plays one shard of games between two strategies, swapping seats every
+     * game.
+     *
+     * @param first  The index of the first strategy.
+     * @param second The index of the second strategy.
+     * @param games  The number of games to play.
+     * @param rand   The generator the games draw from.
+     * @return The results of the games.
+     */
+    private MatchupResult playShard(int first, int second, long games, SplittableRandom rand) {
+        MatchupResult result = new MatchupResult(names.get(first), names.get(second), z);
+        Strategy firstStrategy = suppliers.get(first).get();
+        Strategy secondStrategy = suppliers.get(second).get();
+        for (long i = 0; i < games; i++) {
+            Game game = new Game(2, GameListener.NONE, rand);
+            List<Player> players = game.getPlayers();
+            int firstSeat = (int) (i & 1); // Seats swap every game
+            players.get(firstSeat).setStrategy(firstStrategy);
+            players.get(1 - firstSeat).setStrategy(secondStrategy);
+            game.play();
+            int winner = players.indexOf(game.getWinner());
+            result.recordGame(winner < 0 ? -1 : (winner == firstSeat ? 0 : 1));
+        }
+        return result;
+    }
+
+    /**
+     * Task that plays a range of shards of one batch, splitting the range in
+     * half until a single shard is left.
+     */
+    private class BatchTask extends RecursiveTask<MatchupResult> {
+
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The index of the first strategy.
+         */
+        private int first;
+
+        /**
+         * The index of the second strategy.
+         */
+        private int second;
+
+        /**
+         * The generator of every shard.
+         */
+        private SplittableRandom[] randoms;
+
+        /**
+         * The number of games in every shard.
+         */
+        private long[] shardGames;
+
+        /**
+         * The first shard in this task's range.
+         */
+        private int from;
+
+        /**
+         * One past the last shard in this task's range.
+         */
+        private int to;
+
+        /**
+         * Constructs a task for the shards from (inclusive) to to (exclusive).
+         *
+         * @param first      The index of the first strategy.
+         * @param second     The index of the second strategy.
+         * @param randoms    The generator of every shard.
+         * @param shardGames The number of games in every shard.
+         * @param from       The first shard.
+         * @param to         One past the last shard.
+         */
+        BatchTask(int first, int second, SplittableRandom[] randoms, long[] shardGames, int from, int to) {
+            this.first = first;
+            this.second = second;
+            this.randoms = randoms;
+            this.shardGames = shardGames;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected MatchupResult compute() {
+            if (to - from == 1) {
+                return playShard(first, second, shardGames[from], randoms[from]);
+            }
+            int middle = (from + to) >>> 1;
+            BatchTask left = new BatchTask(first, second, randoms, shardGames, from, middle);
+            BatchTask right = new BatchTask(first, second, randoms, shardGames, middle, to);
+            left.fork();
+            MatchupResult result = right.compute();
+            result.merge(left.join());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package edu.guilford;
+
+import java.util.List;
+
+/**
+ * Receives what a {@link TableHost} needs from, or has to tell, the people
+ * seated at its tables.
+ * <p>
+ * Every method is called on the event loop thread that runs the table, so
+ * implementations must return quickly and never block; a client answers a
+ * decision later by submitting a move to the host from any thread. The host
+ * only passes values that do not change afterwards, never its games or
+ * players, which a compact table shares with the other tables on its loop,
+ * so a client may keep anything it is given.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TableHost
+ * @see LocalTableClient
+ */
+@FunctionalInterface
+public interface TableClient {
+
+    /**
+     * Called when a person's turn is waiting for a decision.
+     *
+     * @param table      The table's id.
+     * @param seat       The seat of the player who has to decide.
+     * @param hand       An unmodifiable copy of the player's hand.
+     * @param topDiscard The top card of the discard pile, or null if it is
+     *                   empty.
+     * @param decision   The decision to make.
+     */
+    void decisionNeeded(long table, int seat, List<Card> hand, Card topDiscard, Game.Decision decision);
+
+    /**
+     * Called when a submitted move was not applied, because it was not the
+     * decision the table is waiting for or named a card that is not in the
+     * hand. Moves for a table that has closed are dropped.
+     *
+     * @param table  The table's id.
+     * @param reason Why the move was rejected.
+     */
+    default void moveRejected(long table, String reason) {
+    }
+
+    /**
+     * Called once when a table closes, because its game is over or it was
+     * closed by the host.
+     *
+     * @param table      The table's id.
+     * @param winnerSeat The seat of the winner of the game, or -1 if the
+     *                   game did not finish or had no winner.
+     */
+    default void tableClosed(long table, int winnerSeat) {
+    }
+
+    /**
+     * Called when a table's game or one of its strategies throws. The table
+     * is closed without calling tableClosed().
+     *
+     * @param table The table's id.
+     * @param e     The exception thrown.
+     */
+    default void tableFailed(long table, RuntimeException e) {
+    }
+}
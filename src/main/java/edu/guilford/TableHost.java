@@ -0,0 +1,533 @@
+package edu.guilford;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hosts any number of games at once as independent tables, with people and
+ * bots seated together.
+ * <p>
+ * Tables are spread over a small, fixed number of event loop threads. Each
+ * loop owns its tables outright: a table's game, piles and generator are
+ * only ever touched by its loop, so nothing is locked and no table holds a
+ * thread of its own. Everything reaches a table through its loop's command
+ * queue: opening it, people's moves and closing it. After every command the
+ * loop plays the bots' turns itself with {@link Game#step()} until a person
+ * has to decide, asks that person's {@link TableClient} for the decision,
+ * and moves on to other tables. A table waiting for a person therefore costs
+ * only the memory of its game. A loop plays at most a slice of bot turns on
+ * one table before giving the other tables on the loop their turn, so bot
+ * only tables cannot hold up moves at other tables.
+ * <p>
+ * Tables opened with openCompact() are kept even smaller: between commands
+ * such a table is only a {@link GameSnapshot} of a few hundred bytes, and
+ * its game is restored into a scratch game owned by the loop when a command
+ * arrives. Compact tables play without a listener, and their bots use the
+ * default strategy.
+ * <p>
+ * The time from a move being submitted to it being applied is recorded in a
+ * latency histogram, available from getMoveLatency().
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TableClient
+ * @see LocalTableClient
+ * @see Game#beginTurn()
+ */
+public class TableHost implements Closeable {
+
+    /**
+     * The most bot turns a loop plays on one table before serving the rest of
+     * its queue.
+     */
+    private static final int BOT_TURNS_PER_SLICE = 64;
+
+    /**
+     * Queued by close() to stop a loop.
+     */
+    private static final Runnable STOP = () -> {
+    };
+
+    /**
+     * The event loops, with their queues and tables.
+     */
+    private EventLoop[] loops;
+
+    /**
+     * The id of the last table opened.
+     */
+    private AtomicLong lastTable = new AtomicLong();
+
+    /**
+     * The number of tables open.
+     */
+    private AtomicInteger openTables = new AtomicInteger();
+
+    /**
+     * The time from a move being submitted to it being applied, in
+     * nanoseconds.
+     */
+    private LatencyHistogram moveLatency = new LatencyHistogram();
+
+    /**
+     * Whether close() has been called.
+     */
+    private volatile boolean closed;
+
+    /**
+     * Constructs a host with one event loop per available processor.
+     */
+    public TableHost() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a host with the given number of event loops and starts them.
+     *
+     * @param loops The number of event loop threads.
+     */
+    public TableHost(int loops) {
+        if (loops < 1) {
+            throw new IllegalArgumentException("A table host needs at least 1 event loop");
+        }
+        this.loops = new EventLoop[loops];
+        for (int i = 0; i < loops; i++) {
+            this.loops[i] = new EventLoop("table-host-" + i);
+        }
+    }
+
+    /**
+     * Opens a table for a game and starts playing it. The game must not be
+     * used by the caller once it has been handed to the host.
+     *
+     * @param game       The game to play, not yet started.
+     * @param client     Where people's decisions are asked for.
+     * @param humanSeats The seats whose decisions come from the client rather
+     *                   than from the players' strategies.
+     * @return The table's id.
+     * @throws IllegalStateException if the host has been closed.
+     */
+    public long open(Game game, TableClient client, int... humanSeats) {
+        boolean[] human = new boolean[game.getPlayers().size()];
+        for (int seat : humanSeats) {
+            human[seat] = true;
+        }
+        return open(new Table(lastTable.incrementAndGet(), game, null, client, human));
+    }
+
+    /**
+     * Opens a compact table for a new seeded game and starts playing it. The
+     * table is kept as a snapshot between commands.
+     *
+     * @param numPlayers The number of players.
+     * @param seed       The seed of the game.
+     * @param client     Where people's decisions are asked for.
+     * @param humanSeats The seats whose decisions come from the client rather
+     *                   than from the default strategy.
+     * @return The table's id.
+     * @throws IllegalStateException if the host has been closed.
+     */
+    public long openCompact(int numPlayers, long seed, TableClient client, int... humanSeats) {
+        boolean[] human = new boolean[numPlayers];
+        for (int seat : humanSeats) {
+            human[seat] = true;
+        }
+        GameSnapshot snapshot = new Game(numPlayers, GameListener.NONE, seed).snapshot();
+        return open(new Table(lastTable.incrementAndGet(), null, snapshot, client, human));
+    }
+
+    /**
+     * Hands a new table to its loop.
+     *
+     * @param table The table.
+     * @return The table's id.
+     */
+    private long open(Table table) {
+        EventLoop loop = loop(table.id);
+        loop.submit(() -> {
+            openTables.incrementAndGet(); // Counted here, so a rejected table never is
+            loop.tables.put(table.id, table);
+            advance(loop, table, table.load(loop));
+        });
+        return table.id;
+    }
+
+    /**
+     * Submits a person's draw decision.
+     *
+     * @param table       The table's id.
+     * @param takeDiscard true to take the top discard, false to draw from the
+     *                    stock pile.
+     */
+    public void draw(long table, boolean takeDiscard) {
+        move(table, Game.Decision.DRAW, takeDiscard, null);
+    }
+
+    /**
+     * Submits a person's discard decision.
+     *
+     * @param table The table's id.
+     * @param card  The card to discard.
+     */
+    public void discard(long table, Card card) {
+        move(table, Game.Decision.DISCARD, false, card);
+    }
+
+    /**
+     * Submits a person's knock decision.
+     *
+     * @param table The table's id.
+     * @param knock true to knock.
+     */
+    public void knock(long table, boolean knock) {
+        move(table, Game.Decision.KNOCK, knock, null);
+    }
+
+    /**
+     * Closes a table before its game is over. Its client's tableClosed() is
+     * called with no winner.
+     *
+     * @param table The table's id.
+     */
+    public void close(long table) {
+        EventLoop loop = loop(table);
+        loop.submit(() -> {
+            Table closing = loop.tables.get(table);
+            if (closing != null) {
+                remove(loop, closing);
+                closing.client.tableClosed(table, -1);
+            }
+        });
+    }
+
+    /**
+     * Gets the number of tables open.
+     *
+     * @return The number of tables whose games are not over.
+     */
+    public int getTableCount() {
+        return openTables.get();
+    }
+
+    /**
+     * Gets the number of event loops.
+     *
+     * @return The number of loop threads.
+     */
+    public int getLoopCount() {
+        return loops.length;
+    }
+
+    /**
+     * Gets the time from a move being submitted to it being applied.
+     *
+     * @return The move latency histogram, in nanoseconds.
+     */
+    public LatencyHistogram getMoveLatency() {
+        return moveLatency;
+    }
+
+    /**
+     * Stops every event loop once it has run the commands already queued.
+     * Tables still open are dropped without calling their clients.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (EventLoop loop : loops) {
+            loop.queue.add(STOP);
+        }
+        boolean interrupted = false;
+        for (EventLoop loop : loops) {
+            while (loop.thread.isAlive()) {
+                try {
+                    loop.thread.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Queues a person's move for the table's loop.
+     *
+     * @param table    The table's id.
+     * @param decision The decision the move makes.
+     * @param flag     The draw or knock choice.
+     * @param card     The card to discard.
+     */
+    private void move(long table, Game.Decision decision, boolean flag, Card card) {
+        long submitted = System.nanoTime();
+        EventLoop loop = loop(table);
+        loop.submit(() -> {
+            moveLatency.record(System.nanoTime() - submitted);
+            Table moving = loop.tables.get(table);
+            if (moving == null) {
+                return; // Closed; its client has already been told
+            }
+            Game game = moving.load(loop);
+            if (game.getPendingDecision() != decision || !moving.waiting) {
+                moving.client.moveRejected(table, "Table is not waiting for a " + decision + " decision");
+                return;
+            }
+            try {
+                switch (decision) {
+                    case DRAW:
+                        game.decideDraw(flag);
+                        break;
+                    case DISCARD:
+                        game.decideDiscard(card);
+                        break;
+                    default:
+                        game.decideKnock(flag);
+                        break;
+                }
+            } catch (IllegalArgumentException e) {
+                moving.client.moveRejected(table, e.getMessage());
+                return;
+            }
+            moving.waiting = false;
+            advance(loop, moving, game);
+        });
+    }
+
+    /**
+     * Plays a table on until a person has to decide or the game is over,
+     * giving up the loop after a slice of bot turns.
+     *
+     * @param loop  The table's loop.
+     * @param table The table.
+     * @param game  The table's game, loaded.
+     */
+    private void advance(EventLoop loop, Table table, Game game) {
+        try {
+            for (int turns = 0; turns < BOT_TURNS_PER_SLICE; turns++) {
+                if (game.getPendingDecision() == null && !game.beginTurn()) {
+                    remove(loop, table);
+                    Player winner = game.getWinner();
+                    table.client.tableClosed(table.id, winner == null ? -1 : winner.getSeat());
+                    return;
+                }
+                Player player = game.getCurrentPlayer();
+                if (table.human[player.getSeat()]) {
+                    table.waiting = true;
+                    table.save(game);
+                    table.client.decisionNeeded(table.id, player.getSeat(), List.copyOf(player.getHand().getHand()),
+                            game.getTopDiscard(), game.getPendingDecision());
+                    return;
+                }
+                game.step(); // A bot finishes its turn with its strategy
+            }
+            table.save(game);
+        } catch (RuntimeException e) {
+            remove(loop, table);
+            table.client.tableFailed(table.id, e);
+            return;
+        }
+        loop.queue.add(() -> { // Not submit(), which throws after close(); then this is never run
+            if (loop.tables.get(table.id) == table) {
+                advance(loop, table, table.load(loop));
+            }
+        });
+    }
+
+    /**
+     * Takes a table off its loop.
+     *
+     * @param loop  The table's loop.
+     * @param table The table.
+     */
+    private void remove(EventLoop loop, Table table) {
+        loop.tables.remove(table.id);
+        openTables.decrementAndGet();
+    }
+
+    /**
+     * Gets the loop that runs a table.
+     *
+     * @param table The table's id.
+     * @return The table's loop.
+     */
+    private EventLoop loop(long table) {
+        return loops[(int) Long.remainderUnsigned(table, loops.length)];
+    }
+
+    /**
+     * One open table: its game, or the snapshot of a compact table's game,
+     * and who decides for its seats.
+     */
+    private static final class Table {
+
+        /**
+         * The table's id.
+         */
+        final long id;
+
+        /**
+         * The game being played, or null for a compact table.
+         */
+        final Game game;
+
+        /**
+         * The game of a compact table between commands, or null.
+         */
+        final GameSnapshot snapshot;
+
+        /**
+         * Where people's decisions are asked for.
+         */
+        final TableClient client;
+
+        /**
+         * Whether each seat is a person, by seat.
+         */
+        final boolean[] human;
+
+        /**
+         * Whether the client has been asked for the pending decision.
+         */
+        boolean waiting;
+
+        /**
+         * Constructs a table.
+         *
+         * @param id       The table's id.
+         * @param game     The game being played, or null.
+         * @param snapshot The game of a compact table, or null.
+         * @param client   Where people's decisions are asked for.
+         * @param human    Whether each seat is a person.
+         */
+        Table(long id, Game game, GameSnapshot snapshot, TableClient client, boolean[] human) {
+            this.id = id;
+            this.game = game;
+            this.snapshot = snapshot;
+            this.client = client;
+            this.human = human;
+        }
+
+        /**
+         * Gets the table's game, restoring a compact table's game into the
+         * loop's scratch game.
+         *
+         * @param loop The table's loop.
+         * @return The game, ready to play.
+         */
+        Game load(EventLoop loop) {
+            if (snapshot == null) {
+                return game;
+            }
+            Game scratch = loop.scratch(snapshot.getNumPlayers());
+            scratch.restore(snapshot);
+            return scratch;
+        }
+
+        /**
+         * Keeps a compact table's game in its snapshot before the loop moves
+         * on.
+         *
+         * @param loaded The game returned by load().
+         */
+        void save(Game loaded) {
+            if (snapshot != null) {
+                loaded.snapshot(snapshot);
+            }
+        }
+    }
+
+    /**
+     * An event loop thread, its command queue and the tables it owns.
+     */
+    private final class EventLoop {
+
+        /**
+         * Commands waiting to run.
+         */
+        final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<>();
+
+        /**
+         * The open tables, by id. Only touched by the loop thread.
+         */
+        final Map<Long, Table> tables = new HashMap<>();
+
+        /**
+         * Games that compact tables are restored into, by number of players.
+         */
+        final Map<Integer, Game> scratch = new HashMap<>();
+
+        /**
+         * The loop thread.
+         */
+        final Thread thread;
+
+        /**
+         * Constructs a loop and starts its thread.
+         *
+         * @param name The thread's name.
+         */
+        EventLoop(String name) {
+            thread = new Thread(this::run, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * Gets the scratch game for compact tables of a size.
+         *
+         * @param numPlayers The number of players.
+         * @return The loop's game with that many players.
+         */
+        Game scratch(int numPlayers) {
+            return scratch.computeIfAbsent(numPlayers, n -> new Game(n, GameListener.NONE, new XoroshiroRandom(0L)));
+        }
+
+        /**
+         * Queues a command.
+         *
+         * @param command The command to run on the loop.
+         * @throws IllegalStateException if the host has been closed.
+         */
+        void submit(Runnable command) {
+            if (closed) {
+                throw new IllegalStateException("Table host is closed");
+            }
+            queue.add(command);
+        }
+
+        /**
+         * Runs commands until close() stops the loop. A client that throws
+         * is reported to the thread's uncaught exception handler, and the
+         * loop carries on with its other tables.
+         */
+        private void run() {
+            while (true) {
+                Runnable command;
+                try {
+                    command = queue.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (command == STOP) {
+                    return;
+                }
+                try {
+                    command.run();
+                } catch (RuntimeException e) {
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package edu.guilford;
+
+import java.util.List;
+
+/**
+ * A game listener that passes every event on to two other listeners, first
+ * one and then the other. Chain tees to attach any number of listeners to a
+ * game, for example a console listener and a metrics listener.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see GameListener
+ */
+public class TeeGameListener implements GameListener {
+
+    /**
+     * The listener told first.
+     */
+    private GameListener first;
+
+    /**
+     * The listener told second.
+     */
+    private GameListener second;
+
+    /**
+     * Constructs a listener that passes every event to both listeners.
+     *
+     * @param first  The listener told first.
+     * @param second The listener told second.
+     */
+    public TeeGameListener(GameListener first, GameListener second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public void gameStarted(Game game) {
+        first.gameStarted(game);
+        second.gameStarted(game);
+    }
+
+    @Override
+    public void handsDealt(List<Player> players, Card topDiscard) {
+        first.handsDealt(players, topDiscard);
+        second.handsDealt(players, topDiscard);
+    }
+
+    @Override
+    public void roundStarted() {
+        first.roundStarted();
+        second.roundStarted();
+    }
+
+    @Override
+    public void turnStarted(Player player, Card topDiscard) {
+        first.turnStarted(player, topDiscard);
+        second.turnStarted(player, topDiscard);
+    }
+
+    @Override
+    public void discardPileRefilled(Card card) {
+        first.discardPileRefilled(card);
+        second.discardPileRefilled(card);
+    }
+
+    @Override
+    public void stockPileRecycled(int cards) {
+        first.stockPileRecycled(cards);
+        second.stockPileRecycled(cards);
+    }
+
+    @Override
+    public void cardDrawn(Player player, Card card, boolean fromDiscard) {
+        first.cardDrawn(player, card, fromDiscard);
+        second.cardDrawn(player, card, fromDiscard);
+    }
+
+    @Override
+    public void cardDiscarded(Player player, Card card, boolean toStock) {
+        first.cardDiscarded(player, card, toStock);
+        second.cardDiscarded(player, card, toStock);
+    }
+
+    @Override
+    public void thirtyOne(Player player) {
+        first.thirtyOne(player);
+        second.thirtyOne(player);
+    }
+
+    @Override
+    public void knocked(Player player) {
+        first.knocked(player);
+        second.knocked(player);
+    }
+
+    @Override
+    public void turnLimitReached(int turns) {
+        first.turnLimitReached(turns);
+        second.turnLimitReached(turns);
+    }
+
+    @Override
+    public void scoreRevealed(Player player, int score) {
+        first.scoreRevealed(player, score);
+        second.scoreRevealed(player, score);
+    }
+
+    @Override
+    public void livesLost(Player player, int lives) {
+        first.livesLost(player, lives);
+        second.livesLost(player, lives);
+    }
+
+    @Override
+    public void roundEnded(List<Player> players, Player ender, boolean thirtyOne) {
+        first.roundEnded(players, ender, thirtyOne);
+        second.roundEnded(players, ender, thirtyOne);
+    }
+
+    @Override
+    public void gameEnded(Player winner) {
+        first.gameEnded(winner);
+        second.gameEnded(winner);
+    }
+}
@@ -1,18 +1,28 @@
 package edu.guilford;
 
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
 public class ThirtyOneDriver {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
 
         // Test Hand and Card class
 
         System.out.println("-----Test Hand and Card class-----");
         Hand hand = new Hand();
-        hand.addCard(new Card(Card.Suit.HEARTS, Card.Rank.ACE));
-        hand.addCard(new Card(Card.Suit.HEARTS, Card.Rank.TEN));
-        hand.addCard(new Card(Card.Suit.CLUBS, Card.Rank.FIVE));
+        hand.addCard(Card.of(Card.Suit.HEARTS, Card.Rank.ACE));
+        hand.addCard(Card.of(Card.Suit.HEARTS, Card.Rank.TEN));
+        hand.addCard(Card.of(Card.Suit.CLUBS, Card.Rank.FIVE));
 
         System.out.println("\n" + hand);
         System.out.println("Hand Value: " + hand.getTotalValue());
+        hand.sort(Card.BY_SUIT);
+        System.out.println("Sorted by suit:\n" + hand);
 
 
         // Test Deck class
@@ -36,6 +46,225 @@ public class ThirtyOneDriver {
         System.out.println("Game Over. Thanks for playing!");
 
 
+        // Test headless simulation
+        System.out.println("\n-----Test Simulator class-----");
+
+        Simulator simulator = new Simulator(3);
+        SimulationResult result = simulator.run(10000, new SplittableRandom(31));
+        System.out.println(result);
+
+
+        // Test parallel tournament
+        System.out.println("-----Test Tournament class-----");
+
+        Tournament tournament = new Tournament(3, 4, ForkJoinPool.commonPool());
+        SimulationResult tournamentResult = tournament.run(10000, 31L);
+        System.out.println(tournamentResult);
+
+
+        // Test seeded replay
+        System.out.println("-----Test seeded replay-----");
+
+        Game seededGame = new Game(3, GameListener.NONE, 31L);
+        seededGame.play();
+        Game replayedGame = new Game(3, GameListener.NONE, seededGame.getSeed());
+        replayedGame.play();
+        System.out.println("Seed " + seededGame.getSeed() + " winner: " + seededGame.getWinner().getName()
+                + ", replayed winner: " + replayedGame.getWinner().getName());
+
+
+        // Test log replay
+        System.out.println("-----Test GameReplayer class-----");
+
+        Path logFile = Files.createTempFile("game", ".log");
+        int[] liveRounds = new int[1];
+        GameListener roundCounter = new GameListener() {
+            @Override
+            public void roundStarted() {
+                liveRounds[0]++;
+            }
+        };
+        try (GameLogWriter logWriter = GameLogWriter.open(logFile)) {
+            new Game(3, new TeeGameListener(logWriter, roundCounter), 31L).play();
+        }
+        try (GameLogReader logReader = GameLogReader.open(logFile)) {
+            GameReplayer replayer = new GameReplayer(logReader);
+            replayer.nextGame();
+            while (replayer.nextTurn()) {
+                // Replay every turn
+            }
+            System.out.println("Live rounds: " + liveRounds[0] + ", replayed rounds: " + replayer.getRound()
+                    + (liveRounds[0] == replayer.getRound() ? " (match)" : " (MISMATCH)"));
+        }
+        Files.delete(logFile);
+
+
+        // Test event logging
+        System.out.println("-----Test GameEventBus class-----");
+
+        PrintWriter console = new PrintWriter(System.out);
+        AsyncGameEventWriter eventWriter = new AsyncGameEventWriter(console, AsyncGameEventWriter.Format.JSON);
+        GameEventBus bus = new GameEventBus().subscribe(eventWriter, GameEvent.Level.ROUND);
+        new Game(3, bus, 31L).play();
+        eventWriter.close();
+
+
+        // Test game metrics
+        System.out.println("-----Test GameMetrics class-----");
+
+        GameMetrics metrics = new GameMetrics();
+        for (long seed = 0; seed < 1000; seed++) {
+            Game metricsGame = new Game(3, metrics.listener(), seed);
+            for (Player player : metricsGame.getPlayers()) {
+                player.setStrategy(metrics.wrap(DefaultStrategy.INSTANCE));
+            }
+            metricsGame.play();
+        }
+        System.out.println("Rounds: " + metrics.getRounds() + ", turns per round: " + metrics.getTurnsPerRound());
+        System.out.println("Discard decision latency (ns): " + metrics.getDiscardLatency());
+
+
+        // Test streaming analytics
+        System.out.println("-----Test GameAnalytics class-----");
+
+        GameAnalytics analytics = tournament.analyze(10000, 31L);
+        System.out.print(analytics);
+        PrintWriter json = new PrintWriter(System.out);
+        analytics.writeJson(json);
+        json.flush();
+
+
+        // Test turn dataset export
+        System.out.println("-----Test TurnDataset class-----");
+
+        Path directory = Files.createTempDirectory("turns");
+        try (TurnDatasetWriter writer = TurnDatasetWriter.open(directory)) {
+            simulator.run(1000, new XoroshiroRandom(31), writer);
+        }
+        TurnDataset dataset = TurnDataset.open(directory);
+        long won = 0;
+        for (long row = 0; row < dataset.getRows(); row++) {
+            if (dataset.isWon(row)) {
+                won++;
+            }
+        }
+        System.out.println("Turns: " + dataset.getRows() + ", taken by the winner: " + won);
+        for (TurnColumn column : TurnColumn.values()) {
+            Files.delete(directory.resolve(column.getFileName()));
+        }
+        Files.delete(directory);
+
+
+        // Test batch decisions
+        System.out.println("-----Test BatchStrategy class-----");
+
+        BatchStrategy batch = new BatchStrategy();
+        long[] batchHands = new long[4];
+        byte[] batchTops = new byte[4];
+        for (int i = 0; i < batchHands.length; i++) {
+            Hand batchHand = new Hand();
+            for (int j = 0; j < 3; j++) {
+                batchHand.addCard(Card.ofIndex((i * 11 + j * 17) % CardMask.DECK_SIZE));
+            }
+            batchHands[i] = batchHand.getMask();
+            batchTops[i] = (byte) (i * 7);
+        }
+        boolean[] take = new boolean[batchHands.length];
+        boolean[] knock = new boolean[batchHands.length];
+        batch.shouldTakeDiscard(batchHands, batchTops, take, batchHands.length);
+        batch.shouldKnock(batchHands, knock, batchHands.length);
+        for (int i = 0; i < batchHands.length; i++) {
+            System.out.println("Table " + (i + 1) + ": take " + Card.ofIndex(batchTops[i]) + " " + take[i]
+                    + ", worth " + CardMask.score(batchHands[i]) + ", knock " + knock[i]);
+        }
+
+
+        // Test strategy harness
+        System.out.println("-----Test StrategyHarness class-----");
+
+        StrategyHarness harness = new StrategyHarness(4, ForkJoinPool.commonPool());
+        harness.add("knock at 25", DefaultStrategy::new);
+        harness.add("knock at 28", () -> new DefaultStrategy(28));
+        harness.add("lookahead", LookaheadStrategy::new);
+        for (MatchupResult matchup : harness.run(31L)) {
+            System.out.println(matchup);
+        }
+
+        // Test snapshots
+        System.out.println("-----Test GameSnapshot class-----");
+
+        Game snapshotGame = new Game(3, GameListener.NONE, 31L);
+        for (int i = 0; i < 30; i++) {
+            snapshotGame.step();
+        }
+        GameSnapshot snapshot = snapshotGame.snapshot();
+        snapshotGame.play();
+        String firstWinner = snapshotGame.getWinner().getName();
+        snapshotGame.restore(snapshot);
+        snapshotGame.play();
+        System.out.println("Snapshot of " + snapshot.size() + " bytes, winner " + firstWinner
+                + ", winner after restoring: " + snapshotGame.getWinner().getName());
+
+        // Test table host, with the driver playing seat 0 through a local client
+        System.out.println("-----Test TableHost class-----");
+
+        try (TableHost host = new TableHost(1)) {
+            LocalTableClient client = new LocalTableClient();
+            long table = host.open(new Game(3, GameListener.NONE, 31L), client, 0);
+            LocalTableClient.Prompt prompt = client.next(table, 5, TimeUnit.SECONDS);
+            while (prompt != null && !prompt.isClosed()) {
+                Hand seen = new Hand();
+                for (Card card : prompt.getHand()) {
+                    seen.addCard(card);
+                }
+                if (prompt.getDecision() == Game.Decision.DRAW) {
+                    host.draw(table, DefaultStrategy.INSTANCE.shouldTakeDiscard(seen, prompt.getTopDiscard()));
+                } else if (prompt.getDecision() == Game.Decision.DISCARD) {
+                    host.discard(table, DefaultStrategy.INSTANCE.chooseDiscard(seen));
+                } else if (prompt.getDecision() == Game.Decision.KNOCK) {
+                    host.knock(table, DefaultStrategy.INSTANCE.shouldKnock(seen));
+                }
+                prompt = client.next(table, 5, TimeUnit.SECONDS);
+            }
+            System.out.println(prompt + ", move latency " + host.getMoveLatency());
+        }
+
+        // Test a large table dealt from a shoe
+        System.out.println("-----Test large table-----");
+
+        Game largeGame = new Game(200, GameListener.NONE, new XoroshiroRandom(31L));
+        largeGame.play();
+        System.out.println("200 players from " + largeGame.getDecks() + " decks, winner: "
+                + largeGame.getWinner().getName());
+
+        // Test endgame solver
+        System.out.println("-----Test EndgameSolver class-----");
+
+        long mover = CardMask.bit(Card.of(Card.Suit.HEARTS, Card.Rank.KING).index())
+                | CardMask.bit(Card.of(Card.Suit.CLUBS, Card.Rank.FIVE).index())
+                | CardMask.bit(Card.of(Card.Suit.DIAMONDS, Card.Rank.TWO).index());
+        long other = CardMask.bit(Card.of(Card.Suit.SPADES, Card.Rank.ACE).index())
+                | CardMask.bit(Card.of(Card.Suit.SPADES, Card.Rank.SEVEN).index())
+                | CardMask.bit(Card.of(Card.Suit.DIAMONDS, Card.Rank.THREE).index());
+        long stock = CardMask.bit(Card.of(Card.Suit.HEARTS, Card.Rank.ACE).index())
+                | CardMask.bit(Card.of(Card.Suit.SPADES, Card.Rank.TEN).index())
+                | CardMask.bit(Card.of(Card.Suit.CLUBS, Card.Rank.NINE).index())
+                | CardMask.bit(Card.of(Card.Suit.DIAMONDS, Card.Rank.FOUR).index());
+        int top = Card.of(Card.Suit.CLUBS, Card.Rank.THREE).index();
+        EndgameSolver solver = new EndgameSolver();
+        System.out.println("Endgame with 4 stock cards: " + solver.solve(mover, other, stock, top)
+                + " (" + solver.getPositions() + " positions)");
+
+        Game endgame = new Game(3, GameListener.NONE, 31L);
+        while (endgame.beginTurn() && endgame.getAliveCount() > 2) {
+            endgame.step();
+        }
+        if (!endgame.isOver()) {
+            System.out.println(endgame.getCurrentPlayer().getName() + " to move with two players left: "
+                    + solver.solve(endgame) + " (" + solver.getPositions() + " positions)");
+        }
+
+
 
 
         
@@ -0,0 +1,211 @@
+package edu.guilford;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+
+/**
+ * Plays a large number of headless games in parallel on a ForkJoinPool.
+ * The games are divided into a fixed number of shards. Every shard plays its
+ * games one after another with its own Simulator and its own
+ * SplittableRandom, split from a single master seed, and fills in its own
+ * SimulationResult, or its own GameAnalytics. The shard results are merged
+ * only once all games are done, so workers never contend with each other.
+ * <p>
+ * Because shard generators are split from the master in shard order, the
+ * aggregate result depends only on the seed, the number of games and the
+ * number of shards, not on the number of threads or how they were scheduled.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see Simulator
+ * @see GameAnalytics
+ * @see java.util.SplittableRandom
+ */
+public class Tournament {
+
+    /**
+     * The number of players in each game.
+     */
+    private int numPlayers;
+
+    /**
+     * The number of shards the games are divided into.
+     */
+    private int shards;
+
+    /**
+     * The pool the shards run on.
+     */
+    private ForkJoinPool pool;
+
+    /**
+     * Constructs a Tournament that runs one shard per available processor on
+     * the common ForkJoinPool.
+     *
+     * @param numPlayers The number of players in each game.
+     */
+    public Tournament(int numPlayers) {
+        this(numPlayers, Runtime.getRuntime().availableProcessors(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a Tournament with the given number of shards running on the
+     * given pool.
+     *
+     * @param numPlayers The number of players in each game.
+     * @param shards     The number of shards to divide the games into.
+     * @param pool       The pool to run the shards on.
+     */
+    public Tournament(int numPlayers, int shards, ForkJoinPool pool) {
+        if (numPlayers < 2) {
+            throw new IllegalArgumentException("A game needs at least 2 players");
+        }
+        if (shards < 1) {
+            throw new IllegalArgumentException("A tournament needs at least 1 shard");
+        }
+        this.numPlayers = numPlayers;
+        this.shards = shards;
+        this.pool = pool;
+    }
+
+    /**
+     * Gets the number of shards the games are divided into.
+     *
+     * @return The number of shards.
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Plays the given number of games and returns their merged results.
+     * Running again with the same seed gives exactly the same result.
+     *
+     * @param games The number of games to play.
+     * @param seed  The master seed every shard's generator is split from.
+     * @return The results of all games played.
+     */
+    public SimulationResult run(long games, long seed) {
+        return invoke(games, seed, (shardGames, rand) -> new Simulator(numPlayers).run(shardGames, rand),
+                (left, right) -> {
+                    left.merge(right);
+                    return left;
+                });
+    }
+
+    /**
+     * Plays the given number of games and returns the merged statistics of
+     * their events. Running again with the same seed gives exactly the same
+     * statistics.
+     *
+     * @param games The number of games to play.
+     * @param seed  The master seed every shard's generator is split from.
+     * @return The statistics of all games played.
+     */
+    public GameAnalytics analyze(long games, long seed) {
+        return invoke(games, seed, (shardGames, rand) -> new Simulator(numPlayers).analyze(shardGames, rand),
+                GameAnalytics::merge);
+    }
+
+    /**
+     * Divides the games into shards, plays every shard on the pool and merges
+     * the shard results in shard order.
+     *
+     * @param <R>   The type of the results.
+     * @param games The number of games to play.
+     * @param seed  The master seed every shard's generator is split from.
+     * @param shard Plays a shard's games with its generator.
+     * @param merge Merges the results of two neighbouring ranges of shards.
+     * @return The merged result of all shards.
+     */
+    private <R> R invoke(long games, long seed, BiFunction<Long, SplittableRandom, R> shard,
+            BinaryOperator<R> merge) {
+        SplittableRandom master = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[shards];
+        long[] shardGames = new long[shards];
+        for (int i = 0; i < shards; i++) {
+            randoms[i] = master.split();
+            // Spread the remainder over the first shards
+            shardGames[i] = games / shards + (i < games % shards ? 1 : 0);
+        }
+        return pool.invoke(new ShardTask<>(randoms, shardGames, shard, merge, 0, shards));
+    }
+
+    /**
+     * Task that plays a range of shards, splitting the range in half until a
+     * single shard is left.
+     */
+    private static class ShardTask<R> extends RecursiveTask<R> {
+
+        /**
+         * Version of the serialized form.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * The generator of every shard.
+         */
+        private SplittableRandom[] randoms;
+
+        /**
+         * The number of games in every shard.
+         */
+        private long[] shardGames;
+
+        /**
+         * Plays a shard's games.
+         */
+        private BiFunction<Long, SplittableRandom, R> shard;
+
+        /**
+         * Merges the results of two neighbouring ranges of shards.
+         */
+        private BinaryOperator<R> merge;
+
+        /**
+         * The first shard in this task's range.
+         */
+        private int from;
+
+        /**
+         * One past the last shard in this task's range.
+         */
+        private int to;
+
+        /**
+         * Constructs a task for the shards from (inclusive) to to (exclusive).
+         *
+         * @param randoms    The generator of every shard.
+         * @param shardGames The number of games in every shard.
+         * @param shard      Plays a shard's games.
+         * @param merge      Merges the results of two ranges of shards.
+         * @param from       The first shard.
+         * @param to         One past the last shard.
+         */
+        ShardTask(SplittableRandom[] randoms, long[] shardGames, BiFunction<Long, SplittableRandom, R> shard,
+                BinaryOperator<R> merge, int from, int to) {
+            this.randoms = randoms;
+            this.shardGames = shardGames;
+            this.shard = shard;
+            this.merge = merge;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected R compute() {
+            if (to - from == 1) {
+                return shard.apply(shardGames[from], randoms[from]);
+            }
+            int middle = (from + to) >>> 1;
+            ShardTask<R> left = new ShardTask<>(randoms, shardGames, shard, merge, from, middle);
+            ShardTask<R> right = new ShardTask<>(randoms, shardGames, shard, merge, middle, to);
+            left.fork();
+            R result = right.compute();
+            return merge.apply(left.join(), result);
+        }
+    }
+}
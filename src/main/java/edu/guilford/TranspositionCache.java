@@ -0,0 +1,244 @@
+package edu.guilford;
+
+import java.util.Arrays;
+
+/**
+ * A bounded map from long keys to double values with CLOCK eviction.
+ * Used by search strategies to share the evaluation of positions that are
+ * reached again, such as the same hand with the same card on the discard
+ * pile.
+ * <p>
+ * Entries live in fixed arrays and are found through an open addressing
+ * index with linear probing, so lookups and inserts never allocate. When the
+ * cache is full, a clock hand sweeps the entries: an entry that was read
+ * since the hand last passed gets a second chance, the first one that was not
+ * is replaced. This evicts about as well as LRU without reordering anything
+ * on a hit.
+ * <p>
+ * The cache is not thread safe.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see LookaheadStrategy
+ */
+public class TranspositionCache {
+
+    /**
+     * The key of every entry.
+     */
+    private long[] keys;
+
+    /**
+     * The value of every entry.
+     */
+    private double[] values;
+
+    /**
+     * Whether every entry has been read since the clock hand last passed it.
+     */
+    private boolean[] referenced;
+
+    /**
+     * Open addressing index: entry number plus one, or 0 for an empty slot.
+     */
+    private int[] index;
+
+    /**
+     * The number of entries in use.
+     */
+    private int size;
+
+    /**
+     * The entry the clock hand points at.
+     */
+    private int hand;
+
+    /**
+     * The number of lookups that found their key.
+     */
+    private long hits;
+
+    /**
+     * The number of lookups that did not.
+     */
+    private long misses;
+
+    /**
+     * Constructs an empty cache holding at most the given number of entries.
+     *
+     * @param capacity The maximum number of entries.
+     */
+    public TranspositionCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("A cache needs room for at least 1 entry");
+        }
+        keys = new long[capacity];
+        values = new double[capacity];
+        referenced = new boolean[capacity];
+        // At least twice as many slots as entries keeps probe sequences short
+        index = new int[Integer.highestOneBit(capacity) << 2];
+    }
+
+    /**
+     * Looks up a key.
+     *
+     * @param key The key.
+     * @return The value stored for the key, or NaN if it is not in the cache.
+     */
+    public double get(long key) {
+        int slot = find(key);
+        if (index[slot] == 0) {
+            misses++;
+            return Double.NaN;
+        }
+        hits++;
+        int entry = index[slot] - 1;
+        referenced[entry] = true;
+        return values[entry];
+    }
+
+    /**
+     * Stores a value for a key, replacing any value already stored and evicting
+     * another entry if the cache is full.
+     *
+     * @param key   The key.
+     * @param value The value; must not be NaN.
+     */
+    public void put(long key, double value) {
+        int slot = find(key);
+        if (index[slot] != 0) {
+            values[index[slot] - 1] = value;
+            return;
+        }
+        int entry;
+        if (size < keys.length) {
+            entry = size++;
+        } else {
+            entry = evict();
+            slot = find(key); // The eviction may have moved slots around
+        }
+        keys[entry] = key;
+        values[entry] = value;
+        referenced[entry] = false; // New entries only get a second chance once they are read
+        index[slot] = entry + 1;
+    }
+
+    /**
+     * Removes every entry. The hit and miss counts are kept.
+     */
+    public void clear() {
+        Arrays.fill(index, 0);
+        size = 0;
+        hand = 0;
+    }
+
+    /**
+     * Gets the number of entries in the cache.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the maximum number of entries in the cache.
+     *
+     * @return The capacity.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Gets the number of lookups that found their key.
+     *
+     * @return The number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find their key.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Moves the clock hand to the first entry that has not been read since the
+     * hand last passed it, clearing the reference bit of every entry on the
+     * way, and removes that entry from the index.
+     *
+     * @return The freed entry number.
+     */
+    private int evict() {
+        while (referenced[hand]) {
+            referenced[hand] = false;
+            hand = hand + 1 == keys.length ? 0 : hand + 1;
+        }
+        int entry = hand;
+        hand = hand + 1 == keys.length ? 0 : hand + 1;
+        remove(find(keys[entry]));
+        return entry;
+    }
+
+    /**
+     * Empties an index slot, shifting later slots of the same probe sequence
+     * back so that every key can still be found without tombstones.
+     *
+     * @param slot The slot to empty.
+     */
+    private void remove(int slot) {
+        int mask = index.length - 1;
+        index[slot] = 0;
+        int next = slot;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                return;
+            }
+            int home = home(keys[index[next] - 1]);
+            // Move the entry back if its home slot is not between the gap and
+            // where it sits now, cyclically
+            boolean between = slot <= next ? (slot < home && home <= next) : (slot < home || home <= next);
+            if (!between) {
+                index[slot] = index[next];
+                index[next] = 0;
+                slot = next;
+            }
+        }
+    }
+
+    /**
+     * Finds the index slot holding a key, or the empty slot where it would go.
+     *
+     * @param key The key.
+     * @return The slot.
+     */
+    private int find(long key) {
+        int mask = index.length - 1;
+        int slot = home(key);
+        while (index[slot] != 0 && keys[index[slot] - 1] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Gets the first slot probed for a key. Card masks share most of their
+     * bits, so the key is mixed before its low bits are used.
+     *
+     * @param key The key.
+     * @return The home slot.
+     */
+    private int home(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key & (index.length - 1);
+    }
+}
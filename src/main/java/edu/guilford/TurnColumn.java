@@ -0,0 +1,136 @@
+package edu.guilford;
+
+/**
+ * The columns of a turn dataset. Every column is a file of fixed-width
+ * little-endian values, one per turn, after a 16 byte header: a magic
+ * number and the column's code and width, then the number of rows. Cards
+ * are single bytes holding the card index, 255 for no card.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TurnDatasetWriter
+ * @see TurnDataset
+ */
+public enum TurnColumn {
+
+    /**
+     * The game the turn belongs to, counted from 0 by the writer.
+     */
+    GAME(1, Long.BYTES),
+
+    /**
+     * The seat of the player taking the turn.
+     */
+    SEAT(2, Short.BYTES),
+
+    /**
+     * The player's hand at the start of the turn, as a card mask.
+     */
+    HAND(3, Long.BYTES),
+
+    /**
+     * The card on top of the discard pile at the start of the turn.
+     */
+    TOP_DISCARD(4, 1),
+
+    /**
+     * The card drawn, which is the top discard if the player took it.
+     */
+    DRAWN(5, 1),
+
+    /**
+     * The card discarded.
+     */
+    DISCARDED(6, 1),
+
+    /**
+     * What the player did, as the flags TOOK_DISCARD, KNOCKED and
+     * THIRTY_ONE.
+     */
+    ACTION(7, 1),
+
+    /**
+     * The number of lives the player lost when the round ended.
+     */
+    LIVES_LOST(8, 1),
+
+    /**
+     * 1 if the player went on to win the game, 0 if not.
+     */
+    WON(9, 1);
+
+    /**
+     * Action flag set when the player took the top discard instead of
+     * drawing from the stock pile.
+     */
+    public static final int TOOK_DISCARD = 1;
+
+    /**
+     * Action flag set when the player knocked at the end of the turn.
+     */
+    public static final int KNOCKED = 1 << 1;
+
+    /**
+     * Action flag set when the player reached 31 with the turn.
+     */
+    public static final int THIRTY_ONE = 1 << 2;
+
+    /**
+     * The first four bytes of every column file.
+     */
+    static final int MAGIC = 0x43543133; // "31TC" read little-endian
+
+    /**
+     * The size of a column file's header in bytes, which keeps the values of
+     * every column aligned to their width.
+     */
+    static final int HEADER_SIZE = 16;
+
+    /**
+     * The code that identifies the column in its file's header.
+     */
+    private final int code;
+
+    /**
+     * The number of bytes of every value.
+     */
+    private final int width;
+
+    /**
+     * Constructor for TurnColumn, assigning the column's code and width.
+     *
+     * @param code  The code that identifies the column.
+     * @param width The number of bytes of every value.
+     */
+    TurnColumn(int code, int width) {
+        this.code = code;
+        this.width = width;
+    }
+
+    /**
+     * Gets the code that identifies the column in its file's header.
+     *
+     * @return The column code.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Gets the number of bytes of every value in the column.
+     *
+     * @return The width in bytes.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the name of the column's file in a dataset directory.
+     *
+     * @return The file name, such as "hand.col".
+     */
+    public String getFileName() {
+        return name().toLowerCase() + ".col";
+    }
+}
@@ -0,0 +1,294 @@
+package edu.guilford;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A turn dataset written by a {@link TurnDatasetWriter}, mapped into memory
+ * for reading.
+ * <p>
+ * Nothing is copied: every column file is mapped read-only in segments of
+ * 2^27 rows, small enough for a single buffer however wide the column, so
+ * datasets of billions of rows open instantly and are paged in by the
+ * operating system as they are read. Rows can be read one value at a time
+ * with the getters, or a whole segment of a column can be taken with
+ * {@link #getColumn(TurnColumn, int)} and handed to code that works on
+ * buffers directly.
+ * <p>
+ * The dataset holds the rows that were written when it was opened. A
+ * TurnDataset can be shared between threads once opened.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see TurnColumn
+ * @see TurnDatasetWriter
+ */
+public class TurnDataset {
+
+    /**
+     * The number of bits of a row number that pick the row within its
+     * segment.
+     */
+    private static final int SEGMENT_BITS = 27;
+
+    /**
+     * The number of rows in every segment but the last.
+     */
+    public static final long SEGMENT_ROWS = 1L << SEGMENT_BITS;
+
+    /**
+     * The columns, in code order.
+     */
+    private static final TurnColumn[] COLUMNS = TurnColumn.values();
+
+    /**
+     * The number of rows.
+     */
+    private final long rows;
+
+    /**
+     * The mapped segments of every column, by column and segment.
+     */
+    private final ByteBuffer[][] segments;
+
+    /**
+     * Constructs a dataset over mapped segments.
+     *
+     * @param rows     The number of rows.
+     * @param segments The mapped segments, by column and segment.
+     */
+    private TurnDataset(long rows, ByteBuffer[][] segments) {
+        this.rows = rows;
+        this.segments = segments;
+    }
+
+    /**
+     * Maps the dataset in the given directory.
+     *
+     * @param directory The dataset directory.
+     * @return The mapped dataset.
+     * @throws IOException if a column file is missing, cannot be mapped, or
+     *                     does not match the others.
+     */
+    public static TurnDataset open(Path directory) throws IOException {
+        long rows = -1;
+        ByteBuffer[][] segments = new ByteBuffer[COLUMNS.length][];
+        for (TurnColumn column : COLUMNS) {
+            Path path = directory.resolve(column.getFileName());
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer header = ByteBuffer.allocate(TurnColumn.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                while (header.hasRemaining() && channel.read(header) >= 0) {
+                    // Read the whole header
+                }
+                if (header.hasRemaining() || header.getInt(0) != TurnColumn.MAGIC
+                        || header.getShort(4) != column.getCode() || header.getShort(6) != column.getWidth()) {
+                    throw new IOException(path + " is not a " + column + " column");
+                }
+                long columnRows = header.getLong(8);
+                if (rows >= 0 && columnRows != rows) {
+                    throw new IOException(path + " has " + columnRows + " rows, other columns have " + rows);
+                }
+                rows = columnRows;
+                if (channel.size() < TurnColumn.HEADER_SIZE + rows * column.getWidth()) {
+                    throw new IOException(path + " is shorter than its " + rows + " rows");
+                }
+                segments[column.ordinal()] = map(channel, column.getWidth(), rows);
+            }
+        }
+        return new TurnDataset(rows, segments);
+    }
+
+    /**
+     * Maps a column file's rows in segments.
+     *
+     * @param channel The column file.
+     * @param width   The column's width.
+     * @param rows    The number of rows.
+     * @return The mapped segments.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private static ByteBuffer[] map(FileChannel channel, int width, long rows) throws IOException {
+        int count = (int) ((rows + SEGMENT_ROWS - 1) >>> SEGMENT_BITS);
+        ByteBuffer[] mapped = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long first = (long) i << SEGMENT_BITS;
+            long size = Math.min(SEGMENT_ROWS, rows - first) * width;
+            mapped[i] = channel.map(FileChannel.MapMode.READ_ONLY, TurnColumn.HEADER_SIZE + first * width, size)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return mapped;
+    }
+
+    /**
+     * Gets the number of rows in the dataset.
+     *
+     * @return The number of turns.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of segments every column is mapped in.
+     *
+     * @return The number of segments.
+     */
+    public int getSegments() {
+        return segments[0].length;
+    }
+
+    /**
+     * Gets a segment of a column, without copying it. Row r of the dataset
+     * is value r % SEGMENT_ROWS of segment r / SEGMENT_ROWS.
+     *
+     * @param column  The column.
+     * @param segment The segment, starting at 0.
+     * @return A read-only little-endian buffer over the segment's values.
+     */
+    public ByteBuffer getColumn(TurnColumn column, int segment) {
+        return segments[column.ordinal()][segment].asReadOnlyBuffer().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Gets the game a row belongs to.
+     *
+     * @param row The row, starting at 0.
+     * @return The game, counted from 0.
+     */
+    public long getGame(long row) {
+        return segment(TurnColumn.GAME, row).getLong(offset(row, Long.BYTES));
+    }
+
+    /**
+     * Gets the seat of the player taking a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The seat.
+     */
+    public int getSeat(long row) {
+        return Short.toUnsignedInt(segment(TurnColumn.SEAT, row).getShort(offset(row, Short.BYTES)));
+    }
+
+    /**
+     * Gets the player's hand at the start of a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The hand, as a card mask.
+     */
+    public long getHand(long row) {
+        return segment(TurnColumn.HAND, row).getLong(offset(row, Long.BYTES));
+    }
+
+    /**
+     * Gets the top discard at the start of a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The card index, or -1 if there was none.
+     */
+    public int getTopDiscard(long row) {
+        return card(TurnColumn.TOP_DISCARD, row);
+    }
+
+    /**
+     * Gets the card drawn in a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The card index, or -1 if the stock pile was empty.
+     */
+    public int getDrawn(long row) {
+        return card(TurnColumn.DRAWN, row);
+    }
+
+    /**
+     * Gets the card discarded in a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The card index, or -1 if there was none.
+     */
+    public int getDiscarded(long row) {
+        return card(TurnColumn.DISCARDED, row);
+    }
+
+    /**
+     * Gets what the player did in a row's turn.
+     *
+     * @param row The row, starting at 0.
+     * @return The action flags of {@link TurnColumn}.
+     */
+    public int getAction(long row) {
+        return value(TurnColumn.ACTION, row);
+    }
+
+    /**
+     * Gets the number of lives the player lost when a row's round ended.
+     *
+     * @param row The row, starting at 0.
+     * @return The number of lives lost.
+     */
+    public int getLivesLost(long row) {
+        return value(TurnColumn.LIVES_LOST, row);
+    }
+
+    /**
+     * Checks if the player taking a row's turn went on to win the game.
+     *
+     * @param row The row, starting at 0.
+     * @return true if the player won.
+     */
+    public boolean isWon(long row) {
+        return value(TurnColumn.WON, row) != 0;
+    }
+
+    /**
+     * Gets a card from a one byte column.
+     *
+     * @param column The column.
+     * @param row    The row.
+     * @return The card index, or -1 for no card.
+     */
+    private int card(TurnColumn column, long row) {
+        int card = value(column, row);
+        return card == TurnDatasetWriter.NO_CARD ? -1 : card;
+    }
+
+    /**
+     * Gets a value from a one byte column.
+     *
+     * @param column The column.
+     * @param row    The row.
+     * @return The value, from 0 to 255.
+     */
+    private int value(TurnColumn column, long row) {
+        return Byte.toUnsignedInt(segment(column, row).get(offset(row, 1)));
+    }
+
+    /**
+     * Gets the segment of a column holding a row.
+     *
+     * @param column The column.
+     * @param row    The row.
+     * @return The segment.
+     * @throws IndexOutOfBoundsException if the row is not in the dataset.
+     */
+    private ByteBuffer segment(TurnColumn column, long row) {
+        if (row < 0 || row >= rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " of " + rows);
+        }
+        return segments[column.ordinal()][(int) (row >>> SEGMENT_BITS)];
+    }
+
+    /**
+     * Gets the offset of a row within its segment.
+     *
+     * @param row   The row.
+     * @param width The column's width.
+     * @return The offset in bytes.
+     */
+    private static int offset(long row, int width) {
+        return (int) (row & (SEGMENT_ROWS - 1)) * width;
+    }
+}
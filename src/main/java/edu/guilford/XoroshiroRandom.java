@@ -0,0 +1,109 @@
+package edu.guilford;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A small, fast, seedable random number generator using the xoroshiro128++
+ * algorithm by Blackman and Vigna.
+ * <p>
+ * Unlike the generators in the JDK, the whole state of this generator is two
+ * longs that can be read and written, so a game driven by it can be
+ * reproduced from a seed and its random stream can be saved and restored.
+ * It is not thread safe; give every thread its own instance.
+ *
+ * @author Miguel A. Nunez Palomares
+ * @version 1.0
+ * @see java.util.random.RandomGenerator
+ */
+public class XoroshiroRandom implements RandomGenerator {
+
+    /**
+     * The first half of the generator's state.
+     */
+    private long s0;
+
+    /**
+     * The second half of the generator's state.
+     */
+    private long s1;
+
+    /**
+     * Constructs a generator whose state is derived from a seed. Generators
+     * constructed with the same seed produce the same numbers.
+     *
+     * @param seed The seed.
+     */
+    public XoroshiroRandom(long seed) {
+        // Expand the seed with SplitMix64 so that similar seeds give unrelated
+        // states and the state is never all zero.
+        seed += 0x9E3779B97F4A7C15L;
+        s0 = mix(seed);
+        seed += 0x9E3779B97F4A7C15L;
+        s1 = mix(seed);
+    }
+
+    /**
+     * Constructs a generator with the given state.
+     *
+     * @param s0 The first half of the state.
+     * @param s1 The second half of the state.
+     */
+    public XoroshiroRandom(long s0, long s1) {
+        setState(s0, s1);
+    }
+
+    /**
+     * The SplitMix64 output function.
+     *
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @Override
+    public long nextLong() {
+        long result = Long.rotateLeft(s0 + s1, 17) + s0;
+        long t = s1 ^ s0;
+        s0 = Long.rotateLeft(s0, 49) ^ t ^ (t << 21);
+        s1 = Long.rotateLeft(t, 28);
+        return result;
+    }
+
+    /**
+     * Gets the first half of the generator's state.
+     *
+     * @return The first state word.
+     */
+    public long getState0() {
+        return s0;
+    }
+
+    /**
+     * Gets the second half of the generator's state.
+     *
+     * @return The second state word.
+     */
+    public long getState1() {
+        return s1;
+    }
+
+    /**
+     * Sets the generator's state, so that it continues from the point where
+     * the state was read.
+     *
+     * @param s0 The first half of the state.
+     * @param s1 The second half of the state.
+     * @throws IllegalArgumentException if both halves are zero.
+     */
+    public void setState(long s0, long s1) {
+        if (s0 == 0 && s1 == 0) {
+            throw new IllegalArgumentException("The state of a xoroshiro generator cannot be all zero");
+        }
+        this.s0 = s0;
+        this.s1 = s1;
+    }
+}